@@ -5,6 +5,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @ComponentScan(
         basePackages = "org.example.springboot",
@@ -17,6 +18,7 @@ import org.springframework.context.annotation.FilterType;
                 @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, value = AiChatController.class)
         }
 )
+@EnableScheduling
 @SpringBootApplication
 public class SpringbootApplication {
 
@@ -0,0 +1,200 @@
+package org.example.springboot.common.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 进程内本地缓存
+ *
+ * 1. 按key哈希分段，每段是一个访问有序的LinkedHashMap，段内LRU淘汰，降低锁竞争
+ * 2. 条目写入时记录过期时间，读取时惰性过期
+ * 3. 读穿透加载时记录段版本号，加载期间发生失效则丢弃加载结果，避免把旧数据写回缓存
+ * 4. 命中、未命中、淘汰、过期、失效次数通过 {@link #stats()} 暴露
+ *
+ * @author system
+ */
+public class LocalCache<K, V> {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final String name;
+    private final long ttlMillis;
+    private final Segment<K, V>[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param name 缓存名称（用于统计输出）
+     * @param maxSize 最大条目数
+     * @param ttlMillis 条目存活时间（毫秒）
+     */
+    @SuppressWarnings("unchecked")
+    public LocalCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        int segmentCapacity = Math.max(1, (maxSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<>(segmentCapacity, evictions);
+        }
+    }
+
+    /**
+     * 读取缓存，不存在或已过期返回null
+     */
+    public V getIfPresent(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.map.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.expireAt <= System.currentTimeMillis()) {
+                segment.map.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    /**
+     * 读穿透：未命中时调用loader加载并写入缓存（loader返回null时不缓存）
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        long version;
+        synchronized (segment) {
+            version = segment.version;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            synchronized (segment) {
+                if (segment.version == version) {
+                    segment.map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 直接写入缓存
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    /**
+     * 使单个key失效
+     */
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.version++;
+            segment.map.remove(key);
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.version++;
+                segment.map.clear();
+            }
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * 当前条目数（包含尚未惰性清理的过期条目）
+     */
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requestCount = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("hitCount", hitCount);
+        stats.put("missCount", missCount);
+        stats.put("hitRate", requestCount == 0 ? 0.0 : (double) hitCount / requestCount);
+        stats.put("evictionCount", evictions.sum());
+        stats.put("expirationCount", expirations.sum());
+        stats.put("invalidationCount", invalidations.sum());
+        return stats;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * 缓存段：访问有序的LinkedHashMap，超出容量时淘汰最久未访问的条目
+     */
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, Entry<V>> map;
+        private long version;
+
+        private Segment(int capacity, LongAdder evictions) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
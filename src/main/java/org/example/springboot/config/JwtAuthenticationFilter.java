@@ -1,6 +1,8 @@
 package org.example.springboot.config;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.annotation.Resource;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.springboot.dto.response.UserDetailResponseDTO;
 import org.example.springboot.enums.UserStatus;
 import org.example.springboot.service.UserService;
+import org.example.springboot.service.auth.JwtTokenService;
 import org.example.springboot.util.JwtTokenUtils;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -28,6 +31,7 @@ import java.util.List;
  * 3. 统一的token验证和用户上下文设置
  * 4. 完善的异常处理和日志记录
  * 5. 标准的用户认证系统，支持角色权限
+ * 6. 信任短期访问令牌中的用户类型与状态声明，认证时不查询数据库
  *
  * @author system
  * @date 2025-01-13
@@ -38,6 +42,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Resource
     private UserService userService;
 
+    @Resource
+    private JwtTokenService jwtTokenService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -56,21 +63,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         token.length(),
                         token.length() > 20 ? token.substring(0, 20) + "..." : token);
 
-                // 2. 验证token并获取用户ID
-                Long userId = getUserIdFromToken(token);
+                // 2. 验证token（签名、签发者、过期时间与注销状态，已校验过的token走缓存）并获取用户ID
+                DecodedJWT jwt = jwtTokenService.verify(token);
+                Long userId = jwt.getClaim(JwtTokenUtils.CLAIM_USER_ID).asLong();
 
                 if (userId != null) {
-                    // 检查token是否过期
-                    if (JwtTokenUtils.isTokenExpired(token)) {
-                        log.warn("JWT token已过期，用户ID：{}", userId);
-                        SecurityContextHolder.clearContext();
-                        filterChain.doFilter(request, response);
-                        return;
+                    // 3. 用户信息取自token声明：访问令牌短期有效，禁用、删除、类型变更时已签发的令牌立即注销，
+                    //    无需每个请求查询用户；未携带类型与状态声明的旧token回退到查询用户（带缓存）
+                    UserDetailResponseDTO user = JwtTokenUtils.getPrincipal(jwt);
+                    if (user == null) {
+                        user = userService.getAuthenticatedUser(userId);
                     }
 
-                    // 3. 查询用户信息（验证用户是否仍然存在和有效）
-                    UserDetailResponseDTO user = userService.getUserById(userId);
-
                     if (user != null && user.getStatus().equals(UserStatus.NORMAL.getCode())) {
                         // 4. 创建Spring Security认证对象
                         List<SimpleGrantedAuthority> authorities = Collections.singletonList(
@@ -88,8 +92,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         SecurityContextHolder.getContext().setAuthentication(authentication);
 
                         // 6. 设置用户信息到请求属性（方便Controller使用）
-                        request.setAttribute("currentUser", user);
-                        request.setAttribute("currentUserId", userId);
+                        request.setAttribute(JwtTokenUtils.CURRENT_USER_ATTRIBUTE, user);
+                        request.setAttribute(JwtTokenUtils.CURRENT_USER_ID_ATTRIBUTE, userId);
+                        request.setAttribute(JwtTokenUtils.CURRENT_TOKEN_ATTRIBUTE, jwt);
 
                         log.debug("JWT认证成功，用户ID：{}，用户名：{}，用户类型：{}", 
                                 userId, user.getUsername(), user.getUserType());
@@ -106,6 +111,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             } else {
                 log.debug("未找到token，跳过JWT认证");
             }
+        } catch (TokenExpiredException e) {
+            log.warn("JWT token已过期：{}", e.getMessage());
+            SecurityContextHolder.clearContext();
         } catch (JWTVerificationException e) {
             log.warn("JWT验证失败：{}，清理认证上下文", e.getMessage());
             // JWT验证失败时清理认证上下文
@@ -134,18 +142,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
-
-    /**
-     * 从token中获取用户ID
-     * @param token JWT token
-     * @return 用户ID
-     */
-    private Long getUserIdFromToken(String token) {
-        try {
-            return JwtTokenUtils.verifyToken(token).getClaim("userId").asLong();
-        } catch (Exception e) {
-            log.error("从token获取用户ID失败", e);
-            return null;
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package org.example.springboot.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * 定时任务配置类
+ * 1. 所有 @Scheduled 任务使用独立的定时任务线程池，不依赖默认的单线程调度器，
+ *    也不与WebSocket消息代理的 messageBrokerTaskScheduler 共用线程
+ * 2. 线程池同时承载亚秒级任务（热卖库存同步、发件箱轮询、仪表板推送）和耗时任务
+ *    （订单归档、相似度重建、统计对账、各类清理），线程数需大于同时可能运行的耗时任务数，
+ *    避免耗时任务占满线程导致高频任务停顿
+ *
+ * @author system
+ */
+@Slf4j
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    @Value("${heritage.scheduling.pool-size:8}")
+    private int poolSize;
+
+    @Value("${heritage.scheduling.await-termination-seconds:30}")
+    private int awaitTerminationSeconds;
+
+    /**
+     * 不注册为Bean：调度线程池同时也是Executor，注册后会使Spring Boot不再创建默认的applicationTaskExecutor
+     */
+    private ThreadPoolTaskScheduler scheduler;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduled-task-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(awaitTerminationSeconds);
+        scheduler.setErrorHandler(e -> log.error("定时任务执行失败", e));
+        scheduler.initialize();
+        registrar.setTaskScheduler(scheduler);
+        log.info("定时任务线程池初始化: 线程数={}", poolSize);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+}
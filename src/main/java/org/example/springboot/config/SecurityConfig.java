@@ -54,6 +54,7 @@ public class SecurityConfig {
         // 认证相关接口（必须公开）
         "/api/user/auth",        // 匿名用户认证（注册/登录）
         "/api/user/login",       // 用户登录
+        "/api/user/token/refresh", // 刷新令牌换取新的访问令牌
         "/api/user/register",    // 用户注册
         "/api/user/forget",      // 忘记密码
         "/api/user/add",         // 用户添加
@@ -62,6 +63,9 @@ public class SecurityConfig {
         // 公开信息接口
         "/api/user/{id}",        // 用户信息查询（公开）
         
+        // WebSocket握手（STOMP CONNECT帧中校验管理员token）
+        "/ws/**",
+        
         // 静态资源（与实际目录结构一致）
         "/static/**",           // 项目静态资源统一路径
         "/files/**",            // 文件上传目录访问
@@ -0,0 +1,80 @@
+package org.example.springboot.config;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.dto.response.UserDetailResponseDTO;
+import org.example.springboot.enums.UserStatus;
+import org.example.springboot.enums.UserType;
+import org.example.springboot.service.UserService;
+import org.example.springboot.service.auth.JwtTokenService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+
+/**
+ * STOMP认证拦截器
+ * 1. 浏览器WebSocket握手无法携带Authorization请求头，改为在CONNECT帧的
+ *    Authorization头中携带 Bearer token，校验通过且为正常状态的管理员才允许连接
+ * 2. 未认证的会话不允许订阅
+ *
+ * @author system
+ */
+@Slf4j
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    /**
+     * 延迟注入：UserService 依赖实时推送服务，而推送服务依赖本拦截器所在的消息代理配置
+     */
+    @Lazy
+    @Resource
+    private UserService userService;
+
+    @Resource
+    private JwtTokenService jwtTokenService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand()) && accessor.getUser() == null) {
+            throw new MessageDeliveryException("未认证的连接不允许订阅");
+        }
+        return message;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(String authHeader) {
+        if (!StringUtils.hasText(authHeader) || !authHeader.startsWith("Bearer ")) {
+            throw new MessageDeliveryException("缺少认证信息");
+        }
+        UserDetailResponseDTO user;
+        try {
+            Long userId = jwtTokenService.verify(authHeader.substring(7)).getClaim("userId").asLong();
+            user = userService.getAuthenticatedUser(userId);
+        } catch (Exception e) {
+            log.warn("WebSocket连接认证失败: {}", e.getMessage());
+            throw new MessageDeliveryException("认证失败");
+        }
+        if (user == null || !UserStatus.NORMAL.getCode().equals(user.getStatus())
+                || !UserType.ADMIN.getCode().equals(user.getUserType())) {
+            throw new MessageDeliveryException("权限不足");
+        }
+        return new UsernamePasswordAuthenticationToken(user.getUsername(), null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getUserType())));
+    }
+}
@@ -1,16 +1,26 @@
 package org.example.springboot.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.example.springboot.common.Result;
 import org.example.springboot.dto.response.DashboardStatisticsResponseDTO;
 import org.example.springboot.service.DashboardService;
+import org.example.springboot.service.dashboard.DailyStatsService;
+import org.example.springboot.util.JwtTokenUtils;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 仪表板控制器
  * @author system
@@ -24,6 +34,9 @@ public class DashboardController {
     @Resource
     private DashboardService dashboardService;
 
+    @Resource
+    private DailyStatsService dailyStatsService;
+
     /**
      * 获取仪表板统计数据
      */
@@ -34,5 +47,62 @@ public class DashboardController {
         DashboardStatisticsResponseDTO statistics = dashboardService.getStatistics();
         return Result.success(statistics);
     }
-}
 
+    /**
+     * 获取各统计指标的缓存命中与计算耗时（管理员）
+     */
+    @Operation(summary = "获取统计指标耗时", description = "各统计指标的缓存命中、计算次数、耗时、失败与超时次数")
+    @GetMapping("/metrics")
+    public Result<Map<String, Object>> getMetricStats() {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        return Result.success(dashboardService.metricStats());
+    }
+
+    /**
+     * 按天查询订单与销售趋势
+     */
+    @Operation(summary = "按天查询订单与销售趋势", description = "日期范围最长366天，默认近7天")
+    @GetMapping("/trend")
+    public Result<List<DashboardStatisticsResponseDTO.DailyStatistics>> getDailyTrend(
+            @Parameter(description = "开始日期 yyyy-MM-dd") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "结束日期 yyyy-MM-dd，默认今天") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(6);
+        log.info("按天查询订单与销售趋势: {} ~ {}", start, end);
+        return Result.success(dashboardService.getDailyTrend(start, end));
+    }
+
+    /**
+     * 按小时查询订单与销售趋势
+     */
+    @Operation(summary = "按小时查询订单与销售趋势", description = "默认今天")
+    @GetMapping("/trend/hourly")
+    public Result<List<DashboardStatisticsResponseDTO.DailyStatistics>> getHourlyTrend(
+            @Parameter(description = "日期 yyyy-MM-dd，默认今天") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        log.info("按小时查询订单与销售趋势: {}", day);
+        return Result.success(dashboardService.getHourlyTrend(day));
+    }
+
+    /**
+     * 按订单表重建统计汇总（管理员）
+     */
+    @Operation(summary = "重建订单统计汇总", description = "按订单表重新计算日期范围内的统计汇总，最长366天")
+    @PostMapping("/stats/rebuild")
+    public Result<Integer> rebuildStats(
+            @Parameter(description = "开始日期 yyyy-MM-dd") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "结束日期 yyyy-MM-dd") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        log.info("重建订单统计汇总: {} ~ {}", startDate, endDate);
+        return Result.success(dailyStatsService.rebuild(startDate, endDate));
+    }
+}
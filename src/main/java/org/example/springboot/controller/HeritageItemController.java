@@ -11,14 +11,17 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 import org.example.springboot.common.Result;
 import org.example.springboot.dto.command.HeritageItemCreateCommandDTO;
 import org.example.springboot.dto.command.HeritageItemUpdateCommandDTO;
 import org.example.springboot.dto.query.HeritageItemListQueryDTO;
+import org.example.springboot.dto.response.CursorPageResponseDTO;
 import org.example.springboot.dto.response.HeritageItemDetailResponseDTO;
 // HeritageItemMediaResponseDTO 仍然保留，用于返回媒体文件信息
 import org.example.springboot.service.HeritageItemService;
+import org.example.springboot.util.JwtTokenUtils;
 // HeritageItemMediaService 已移除
 
 /**
@@ -99,6 +102,41 @@ public class HeritageItemController {
         return Result.success(response);
     }
 
+    /**
+     * 游标分页查询非遗作品列表
+     */
+    @Operation(summary = "游标分页查询作品列表", description = "按创建时间倒序的游标分页，适合深翻页和无限滚动，默认不统计总数")
+    @GetMapping("/cursor-page")
+    public Result<CursorPageResponseDTO<HeritageItemDetailResponseDTO>> getHeritageItemCursorPage(
+            @Parameter(description = "游标（上一页返回的nextCursor，首页不传）") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer size,
+            @Parameter(description = "首页是否返回总数") @RequestParam(defaultValue = "false") Boolean withTotal,
+            @Parameter(description = "标题关键词") @RequestParam(required = false) String title,
+            @Parameter(description = "类别") @RequestParam(required = false) String category,
+            @Parameter(description = "地区") @RequestParam(required = false) String region,
+            @Parameter(description = "状态") @RequestParam(required = false) Integer status,
+            @Parameter(description = "创建人ID") @RequestParam(required = false) String creatorId,
+            @Parameter(description = "开始时间") @RequestParam(required = false) String startDate,
+            @Parameter(description = "结束时间") @RequestParam(required = false) String endDate) {
+
+        log.info("游标分页查询作品列表: cursor={}, size={}, category={}", cursor, size, category);
+
+        HeritageItemListQueryDTO queryDTO = new HeritageItemListQueryDTO();
+        queryDTO.setCursor(cursor);
+        queryDTO.setSize(size);
+        queryDTO.setWithTotal(withTotal);
+        queryDTO.setTitle(title);
+        queryDTO.setCategory(category);
+        queryDTO.setRegion(region);
+        queryDTO.setStatus(status);
+        queryDTO.setCreatorId(creatorId);
+        queryDTO.setStartDate(startDate);
+        queryDTO.setEndDate(endDate);
+
+        CursorPageResponseDTO<HeritageItemDetailResponseDTO> response = heritageItemService.getHeritageItemCursorPage(queryDTO);
+        return Result.success(response);
+    }
+
     /**
      * 更新非遗作品
      */
@@ -187,6 +225,18 @@ public class HeritageItemController {
         return Result.success(response);
     }
 
+    /**
+     * 获取作品详情缓存统计
+     */
+    @Operation(summary = "作品详情缓存统计", description = "查看作品详情缓存的命中、未命中、淘汰等指标（管理员）")
+    @GetMapping("/cache/stats")
+    public Result<Map<String, Object>> getDetailCacheStats() {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        return Result.success(heritageItemService.getDetailCacheStats());
+    }
+
     // ========== 媒体管理接口已移除 ==========
     // 媒体文件现在直接通过 FileController 的文件上传API进行管理
     // 通过 business_type='HERITAGE_ITEM' 和 business_id=作品ID 进行关联
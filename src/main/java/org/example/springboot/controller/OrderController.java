@@ -8,14 +8,22 @@ import jakarta.annotation.Resource;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.example.springboot.common.Result;
+import org.example.springboot.dto.command.OrderBatchCancelCommandDTO;
+import org.example.springboot.dto.command.OrderCheckoutCommandDTO;
 import org.example.springboot.dto.command.OrderCreateCommandDTO;
 import org.example.springboot.dto.response.OrderListResponseDTO;
 import org.example.springboot.dto.response.OrderResponseDTO;
+import org.example.springboot.enums.OrderNoMatchMode;
 import org.example.springboot.enums.UserType;
 import org.example.springboot.service.OrderService;
+import org.example.springboot.service.event.OrderOutboxDispatcher;
+import org.example.springboot.service.order.IdempotencyService;
 import org.example.springboot.util.JwtTokenUtils;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 订单控制器
  * @author system
@@ -29,12 +37,33 @@ public class OrderController {
     @Resource
     private OrderService orderService;
 
+    @Resource
+    private IdempotencyService idempotencyService;
+
+    @Resource
+    private OrderOutboxDispatcher orderOutboxDispatcher;
+
     @Operation(summary = "创建订单")
     @PostMapping
-    public Result<OrderResponseDTO> createOrder(@Valid @RequestBody OrderCreateCommandDTO dto) {
+    public Result<OrderResponseDTO> createOrder(
+            @Valid @RequestBody OrderCreateCommandDTO dto,
+            @Parameter(description = "幂等键，重试时保持不变") @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         Long userId = JwtTokenUtils.getCurrentUserId();
         log.info("创建订单，用户ID: {}, 商品ID: {}", userId, dto.getProductId());
-        OrderResponseDTO result = orderService.createOrder(dto, userId);
+        OrderResponseDTO result = idempotencyService.execute("order:create", userId, idempotencyKey, dto,
+                OrderResponseDTO.class, () -> orderService.createOrder(dto, userId));
+        return Result.success(result);
+    }
+
+    @Operation(summary = "购物车结算")
+    @PostMapping("/checkout")
+    public Result<OrderResponseDTO> checkout(
+            @Valid @RequestBody OrderCheckoutCommandDTO dto,
+            @Parameter(description = "幂等键，重试时保持不变") @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Long userId = JwtTokenUtils.getCurrentUserId();
+        log.info("购物车结算，用户ID: {}, 商品行数: {}", userId, dto.getItems().size());
+        OrderResponseDTO result = idempotencyService.execute("order:checkout", userId, idempotencyKey, dto,
+                OrderResponseDTO.class, () -> orderService.checkout(dto, userId));
         return Result.success(result);
     }
 
@@ -68,9 +97,10 @@ public class OrderController {
             @Parameter(description = "当前页码") @RequestParam(defaultValue = "1") Long current,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Long size,
             @Parameter(description = "订单状态") @RequestParam(required = false) Integer status,
-            @Parameter(description = "订单号") @RequestParam(required = false) String orderNo) {
-        log.info("分页查询管理员订单，页码: {}, 大小: {}, 状态: {}, 订单号: {}", current, size, status, orderNo);
-        Page<OrderListResponseDTO> result = orderService.getAdminOrderPage(current, size, status, orderNo);
+            @Parameter(description = "订单号（完整订单号、前缀或尾号）") @RequestParam(required = false) String orderNo,
+            @Parameter(description = "订单号查找方式 AUTO/EXACT/PREFIX/SUFFIX") @RequestParam(required = false) OrderNoMatchMode matchMode) {
+        log.info("分页查询管理员订单，页码: {}, 大小: {}, 状态: {}, 订单号: {}, 查找方式: {}", current, size, status, orderNo, matchMode);
+        Page<OrderListResponseDTO> result = orderService.getAdminOrderPage(current, size, status, orderNo, matchMode);
         return Result.success(result);
     }
 
@@ -78,10 +108,14 @@ public class OrderController {
     @PutMapping("/{id}/pay")
     public Result<Void> payOrder(
             @Parameter(description = "订单ID") @PathVariable Long id,
-            @Parameter(description = "支付方式") @RequestParam String payType) {
+            @Parameter(description = "支付方式") @RequestParam String payType,
+            @Parameter(description = "幂等键，重试时保持不变") @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         Long userId = JwtTokenUtils.getCurrentUserId();
         log.info("支付订单，订单ID: {}, 用户ID: {}, 支付方式: {}", id, userId, payType);
-        orderService.payOrder(id, userId, payType);
+        idempotencyService.execute("order:pay:" + id, userId, idempotencyKey, payType, Void.class, () -> {
+            orderService.payOrder(id, userId, payType);
+            return null;
+        });
         return Result.success();
     }
 
@@ -97,6 +131,26 @@ public class OrderController {
         return Result.success();
     }
 
+    @Operation(summary = "批量取消订单（管理员）")
+    @PutMapping("/batch-cancel")
+    public Result<List<Long>> batchCancelOrders(@Valid @RequestBody OrderBatchCancelCommandDTO dto) {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        log.info("批量取消订单，订单数: {}", dto.getOrderIds().size());
+        List<Long> cancelledIds = orderService.batchCancelOrders(dto.getOrderIds());
+        return Result.success(cancelledIds);
+    }
+
+    @Operation(summary = "订单事件分发统计（管理员）")
+    @GetMapping("/outbox/stats")
+    public Result<Map<String, Object>> getOutboxStats() {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        return Result.success(orderOutboxDispatcher.stats());
+    }
+
     @Operation(summary = "发货（管理员）")
     @PutMapping("/{id}/ship")
     public Result<Void> shipOrder(
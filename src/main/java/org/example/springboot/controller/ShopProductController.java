@@ -15,9 +15,12 @@ import org.example.springboot.dto.response.ShopProductDetailResponseDTO;
 import org.example.springboot.dto.response.ShopProductListResponseDTO;
 import org.example.springboot.service.ShopProductService;
 import org.example.springboot.service.ProductRecommendService;
+import org.example.springboot.service.stock.HotStockService;
+import org.example.springboot.util.JwtTokenUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品控制器
@@ -35,6 +38,9 @@ public class ShopProductController {
     @Resource
     private ProductRecommendService productRecommendService;
 
+    @Resource
+    private HotStockService hotStockService;
+
     @Operation(summary = "创建商品")
     @PostMapping
     public Result<ShopProductDetailResponseDTO> createProduct(@Valid @RequestBody ShopProductCreateCommandDTO dto) {
@@ -103,6 +109,37 @@ public class ShopProductController {
         return Result.success();
     }
 
+    @Operation(summary = "开启热卖库存模式", description = "库存加载到内存计数器预占，售罄请求不访问数据库，适用于限量商品开售")
+    @PutMapping("/{id}/hot-stock")
+    public Result<Void> enableHotStock(@Parameter(description = "商品ID") @PathVariable String id) {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        log.info("开启热卖库存模式，ID: {}", id);
+        hotStockService.enable(id);
+        return Result.success();
+    }
+
+    @Operation(summary = "关闭热卖库存模式")
+    @DeleteMapping("/{id}/hot-stock")
+    public Result<Void> disableHotStock(@Parameter(description = "商品ID") @PathVariable String id) {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        log.info("关闭热卖库存模式，ID: {}", id);
+        hotStockService.disable(id);
+        return Result.success();
+    }
+
+    @Operation(summary = "热卖库存统计", description = "查看热卖商品的内存剩余库存和待同步订单数（管理员）")
+    @GetMapping("/hot-stock/stats")
+    public Result<Map<String, Object>> getHotStockStats() {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        return Result.success(hotStockService.stats());
+    }
+
     @Operation(summary = "获取商品推荐（基于协同过滤）")
     @GetMapping("/{id}/recommendations")
     public Result<List<ShopProductListResponseDTO>> getRecommendations(
@@ -118,5 +155,22 @@ public class ShopProductController {
         
         return Result.success(recommendedProducts);
     }
-}
 
+    @Operation(summary = "获取个性化推荐（猜你喜欢）", description = "根据当前用户的购买记录推荐商品，未登录或无购买记录时推荐最新商品")
+    @GetMapping("/recommendations/for-you")
+    public Result<List<ShopProductListResponseDTO>> getUserRecommendations(
+            @Parameter(description = "推荐数量") @RequestParam(defaultValue = "8") Integer limit) {
+        Long userId = JwtTokenUtils.getCurrentUserId();
+        List<String> recommendedProductIds = productRecommendService.getUserRecommendations(userId, limit);
+        return Result.success(shopProductService.getProductsByIds(recommendedProductIds));
+    }
+
+    @Operation(summary = "推荐模型统计", description = "查看商品相似度快照的构建耗时、商品对数量和内存占用（管理员）")
+    @GetMapping("/recommendations/stats")
+    public Result<Map<String, Object>> getRecommendationStats() {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        return Result.success(productRecommendService.getModelStats());
+    }
+}
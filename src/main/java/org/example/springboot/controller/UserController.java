@@ -1,5 +1,6 @@
 package org.example.springboot.controller;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,9 +16,13 @@ import org.example.springboot.dto.response.UserLoginResponseDTO;
 import org.example.springboot.common.Result;
 import org.example.springboot.enums.UserType;
 import org.example.springboot.service.UserService;
+import org.example.springboot.service.auth.JwtTokenService;
+import org.example.springboot.service.auth.RefreshTokenService;
 import org.example.springboot.util.JwtTokenUtils;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * 用户管理控制器
  * @author system
@@ -31,6 +36,12 @@ public class UserController {
     @Resource
     private UserService userService;
 
+    @Resource
+    private JwtTokenService jwtTokenService;
+
+    @Resource
+    private RefreshTokenService refreshTokenService;
+
     /**
      * 用户登录
      */
@@ -77,10 +88,12 @@ public class UserController {
     @GetMapping("/current")
     public Result<UserDetailResponseDTO> getCurrentUser() {
         try {
-            UserDetailResponseDTO currentUser = JwtTokenUtils.getCurrentUser();
-            if (currentUser == null) {
+            Long currentUserId = JwtTokenUtils.getCurrentUserId();
+            if (currentUserId == null) {
                 return Result.error("未登录或登录已过期");
             }
+            // 认证信息只包含token声明中的字段，完整资料从用户服务读取
+            UserDetailResponseDTO currentUser = userService.getUserById(currentUserId);
             log.info("获取当前用户信息: {}", currentUser.getUsername());
             return Result.success(currentUser);
         } catch (Exception e) {
@@ -89,6 +102,43 @@ public class UserController {
         }
     }
 
+    /**
+     * 刷新令牌：用刷新令牌换取新的访问令牌和刷新令牌（旧刷新令牌随即失效）
+     */
+    @Operation(summary = "刷新令牌")
+    @PostMapping("/token/refresh")
+    public Result<UserLoginResponseDTO> refreshToken(@Valid @RequestBody UserTokenRefreshCommandDTO refreshDTO) {
+        return Result.success(refreshTokenService.refresh(refreshDTO.getRefreshToken()));
+    }
+
+    /**
+     * 退出登录：注销当前token及其刷新令牌会话
+     */
+    @Operation(summary = "退出登录")
+    @PostMapping("/logout")
+    public Result<Void> logout() {
+        DecodedJWT token = JwtTokenUtils.getCurrentToken();
+        if (token == null) {
+            return Result.error("未登录或登录已过期");
+        }
+        jwtTokenService.revoke(token);
+        refreshTokenService.revokeSession(token.getClaim(JwtTokenUtils.CLAIM_SESSION_ID).asLong());
+        log.info("用户退出登录: userId={}", JwtTokenUtils.getCurrentUserId());
+        return Result.success();
+    }
+
+    /**
+     * token校验统计（管理员功能）
+     */
+    @Operation(summary = "token校验统计")
+    @GetMapping("/token/stats")
+    public Result<Map<String, Object>> getTokenStats() {
+        if (!JwtTokenUtils.isAdmin()) {
+            return Result.error("权限不足");
+        }
+        return Result.success(jwtTokenService.stats());
+    }
+
     /**
      * 更新用户信息
      */
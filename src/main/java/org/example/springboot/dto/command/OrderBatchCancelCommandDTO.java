@@ -0,0 +1,22 @@
+package org.example.springboot.dto.command;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量取消订单命令DTO
+ * @author system
+ */
+@Data
+@Schema(description = "批量取消订单命令DTO")
+public class OrderBatchCancelCommandDTO {
+
+    @Schema(description = "订单ID列表", example = "[1, 2, 3]")
+    @NotEmpty(message = "订单ID不能为空")
+    @Size(max = 1000, message = "单次最多取消1000个订单")
+    private List<Long> orderIds;
+}
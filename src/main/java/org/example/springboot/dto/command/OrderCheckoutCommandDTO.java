@@ -0,0 +1,33 @@
+package org.example.springboot.dto.command;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 购物车结算命令DTO（一个订单包含多个商品）
+ * @author system
+ */
+@Data
+@Schema(description = "购物车结算命令DTO")
+public class OrderCheckoutCommandDTO {
+
+    @Schema(description = "结算商品列表")
+    @NotEmpty(message = "结算商品不能为空")
+    @Size(max = 100, message = "单次结算商品不能超过100种")
+    @Valid
+    private List<OrderCheckoutItemDTO> items;
+
+    @Schema(description = "收货地址ID", example = "1")
+    @NotNull(message = "收货地址ID不能为空")
+    private Long addressId;
+
+    @Schema(description = "订单备注", example = "请尽快发货")
+    @Size(max = 200, message = "订单备注长度不能超过200个字符")
+    private String remark;
+}
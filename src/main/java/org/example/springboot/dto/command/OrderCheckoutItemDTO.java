@@ -0,0 +1,31 @@
+package org.example.springboot.dto.command;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 购物车结算商品行DTO
+ * @author system
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "购物车结算商品行DTO")
+public class OrderCheckoutItemDTO {
+
+    @Schema(description = "商品ID", example = "SP-2025-001")
+    @NotBlank(message = "商品ID不能为空")
+    @Size(max = 50, message = "商品ID长度不能超过50个字符")
+    private String productId;
+
+    @Schema(description = "购买数量", example = "1")
+    @NotNull(message = "购买数量不能为空")
+    @Min(value = 1, message = "购买数量至少为1")
+    private Integer quantity;
+}
@@ -0,0 +1,20 @@
+package org.example.springboot.dto.command;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 刷新令牌命令DTO
+ * @author system
+ */
+@Data
+@Schema(description = "刷新令牌命令")
+public class UserTokenRefreshCommandDTO {
+
+    @Schema(description = "登录或上次刷新时返回的刷新令牌")
+    @NotBlank(message = "刷新令牌不能为空")
+    @Size(max = 128, message = "刷新令牌格式不正确")
+    private String refreshToken;
+}
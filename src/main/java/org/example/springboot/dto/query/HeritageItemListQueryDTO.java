@@ -43,5 +43,11 @@ public class HeritageItemListQueryDTO {
 
     @Schema(description = "排序方向", example = "desc")
     private String orderDirection = "desc";
+
+    @Schema(description = "游标分页：上一页返回的nextCursor，首页不传")
+    private String cursor;
+
+    @Schema(description = "游标分页：首页是否返回总数（无筛选条件时为估算值）", example = "false")
+    private Boolean withTotal = false;
 }
 
@@ -0,0 +1,39 @@
+package org.example.springboot.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页响应DTO
+ * @author system
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "游标分页响应")
+public class CursorPageResponseDTO<T> {
+
+    @Schema(description = "当前页记录")
+    private List<T> records;
+
+    @Schema(description = "每页大小")
+    private Integer size;
+
+    @Schema(description = "下一页游标，为空表示没有更多数据")
+    private String nextCursor;
+
+    @Schema(description = "是否还有更多数据")
+    private Boolean hasMore;
+
+    @Schema(description = "总数（仅首页且请求时返回）")
+    private Long total;
+
+    @Schema(description = "总数是否为估算值")
+    private Boolean totalEstimated;
+}
@@ -0,0 +1,37 @@
+package org.example.springboot.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 仪表板增量推送消息
+ * 客户端把增量累加到已加载的统计数据上
+ * @author system
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "仪表板增量推送消息")
+public class DashboardDeltaMessageDTO {
+
+    @Schema(description = "新增订单数")
+    private Long newOrders;
+
+    @Schema(description = "新增已支付订单数（已支付订单关闭时为负）")
+    private Long paidOrders;
+
+    @Schema(description = "销售额增量（已支付订单关闭时为负）")
+    private BigDecimal salesIncrement;
+
+    @Schema(description = "新增用户数")
+    private Long newUsers;
+
+    @Schema(description = "推送时间（epoch毫秒）")
+    private Long timestamp;
+}
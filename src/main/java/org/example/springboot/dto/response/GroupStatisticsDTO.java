@@ -0,0 +1,30 @@
+package org.example.springboot.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 分组聚合统计结果（数据库 GROUP BY 查询的结果行）
+ * @author system
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "分组聚合统计结果")
+public class GroupStatisticsDTO {
+
+    @Schema(description = "分组键（状态码、类别、日期等）")
+    private String groupKey;
+
+    @Schema(description = "数量")
+    private Long count;
+
+    @Schema(description = "金额")
+    private BigDecimal amount;
+}
@@ -44,6 +44,9 @@ public class HeritageItemDetailResponseDTO {
     @Schema(description = "创建人姓名")
     private String creatorName;
 
+    @Schema(description = "浏览量")
+    private Long viewCount;
+
     @Schema(description = "发布时间")
     private LocalDateTime publishTime;
 
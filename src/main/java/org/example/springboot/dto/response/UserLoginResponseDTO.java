@@ -23,6 +23,12 @@ public class UserLoginResponseDTO {
     @Schema(description = "访问令牌")
     private String token;
 
+    @Schema(description = "刷新令牌（一次性使用，访问令牌过期后换取新令牌）")
+    private String refreshToken;
+
+    @Schema(description = "访问令牌有效期（秒）")
+    private Long expiresIn;
+
     @Schema(description = "角色代码")
     private String roleType;
 
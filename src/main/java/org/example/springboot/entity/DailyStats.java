@@ -0,0 +1,57 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 订单统计汇总实体类（按订单创建时间的小时汇总，按天统计时再按日期合计）
+ * 由订单事件增量更新，由对账任务按天重建
+ * @author system
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("daily_stats")
+@Schema(description = "订单统计汇总实体类")
+public class DailyStats {
+
+    @TableId(type = IdType.AUTO)
+    @Schema(description = "主键ID")
+    private Long id;
+
+    @Schema(description = "统计日期")
+    @TableField("stat_date")
+    private LocalDate statDate;
+
+    @Schema(description = "统计小时 0-23")
+    @TableField("stat_hour")
+    private Integer statHour;
+
+    @Schema(description = "下单数（全部状态）")
+    @TableField("order_count")
+    private Long orderCount;
+
+    @Schema(description = "已支付订单数（已支付、已发货、已完成）")
+    @TableField("paid_count")
+    private Long paidCount;
+
+    @Schema(description = "销售额（已支付、已发货、已完成订单的实付金额）")
+    @TableField("sales_amount")
+    private BigDecimal salesAmount;
+
+    @Schema(description = "更新时间")
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
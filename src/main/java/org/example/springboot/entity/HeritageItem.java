@@ -1,6 +1,7 @@
 package org.example.springboot.entity;
 
 import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -63,6 +64,10 @@ public class HeritageItem {
     @TableField(exist = false)
     private Long coverFileId;
 
+    @Schema(description = "浏览量（只通过批量累加SQL更新，实体更新时不写入，避免覆盖并发累加）")
+    @TableField(value = "view_count", insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Long viewCount;
+
     @Schema(description = "发布时间")
     @TableField("publish_time")
     private LocalDateTime publishTime;
@@ -1,6 +1,7 @@
 package org.example.springboot.entity;
 
 import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -80,6 +81,10 @@ public class ShopOrder {
     @Size(max = 200, message = "备注长度不能超过200个字符")
     private String remark;
 
+    @Schema(description = "库存待同步 1热卖库存已在内存预占、尚未扣减到商品表 0已同步（只通过条件SQL修改）")
+    @TableField(value = "stock_pending", updateStrategy = FieldStrategy.NEVER)
+    private Integer stockPending;
+
     @Schema(description = "创建时间")
     @TableField(value = "create_time", fill = FieldFill.INSERT)
     private LocalDateTime createTime;
@@ -0,0 +1,64 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单事件发件箱实体类
+ * 与订单状态变更在同一事务中写入，由分发器异步投递给监听器
+ * @author system
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("shop_order_outbox")
+@Schema(description = "订单事件发件箱实体类")
+public class ShopOrderOutbox {
+
+    @TableId(type = IdType.AUTO)
+    @Schema(description = "主键ID")
+    private Long id;
+
+    @Schema(description = "事件类型 CREATED/PAID/SHIPPED/COMPLETED/CLOSED")
+    @TableField("event_type")
+    private String eventType;
+
+    @Schema(description = "订单ID")
+    @TableField("order_id")
+    private Long orderId;
+
+    @Schema(description = "用户ID")
+    @TableField("user_id")
+    private Long userId;
+
+    @Schema(description = "事件内容（JSON）")
+    private String payload;
+
+    @Schema(description = "投递状态 0待投递 1已投递")
+    private Integer status;
+
+    @Schema(description = "失败重试次数")
+    private Integer attempts;
+
+    @Schema(description = "下次投递时间")
+    @TableField("next_attempt_time")
+    private LocalDateTime nextAttemptTime;
+
+    @Schema(description = "创建时间")
+    @TableField("create_time")
+    private LocalDateTime createTime;
+
+    @Schema(description = "投递完成时间")
+    @TableField("dispatch_time")
+    private LocalDateTime dispatchTime;
+}
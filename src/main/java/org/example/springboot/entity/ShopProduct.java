@@ -1,6 +1,7 @@
 package org.example.springboot.entity;
 
 import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -55,17 +56,26 @@ public class ShopProduct {
     @DecimalMin(value = "0.00", message = "商品价格不能小于0")
     private BigDecimal price;
 
-    @Schema(description = "库存数量")
+    @Schema(description = "库存数量（只通过条件SQL增减或按版本号设置，实体更新时不写入，避免覆盖并发扣减）")
     @NotNull(message = "库存数量不能为空")
     @Min(value = 0, message = "库存数量不能小于0")
+    @TableField(value = "stock", updateStrategy = FieldStrategy.NEVER)
     private Integer stock;
 
+    @Schema(description = "库存版本号，每次库存变更加1")
+    @TableField(value = "version", insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Integer version;
+
     @Schema(description = "商品详情")
     private String detail;
 
     @Schema(description = "状态 0下架 1上架")
     private Integer status;
 
+    @Schema(description = "热卖库存模式 0关闭 1开启（开启后库存由内存计数器预占、批量同步）")
+    @TableField(value = "hot_stock", insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Integer hotStock;
+
     @Schema(description = "创建时间")
     @TableField(value = "create_time", fill = FieldFill.INSERT)
     private LocalDateTime createTime;
@@ -0,0 +1,69 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 刷新令牌实体类
+ * 只保存令牌摘要；同一次登录产生的令牌属于同一会话，每次刷新轮换为新令牌
+ * @author system
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("user_refresh_token")
+@Schema(description = "刷新令牌实体类")
+public class UserRefreshToken {
+
+    /**
+     * 状态：有效
+     */
+    public static final int STATUS_ACTIVE = 0;
+
+    /**
+     * 状态：已轮换（已换取新令牌，再次使用视为令牌泄露）
+     */
+    public static final int STATUS_ROTATED = 1;
+
+    /**
+     * 状态：已注销
+     */
+    public static final int STATUS_REVOKED = 2;
+
+    @TableId(type = IdType.AUTO)
+    @Schema(description = "主键ID")
+    private Long id;
+
+    @Schema(description = "用户ID")
+    @TableField("user_id")
+    private Long userId;
+
+    @Schema(description = "会话ID（同一次登录轮换产生的令牌相同）")
+    @TableField("session_id")
+    private Long sessionId;
+
+    @Schema(description = "令牌摘要（SHA-256，Base64URL）")
+    @TableField("token_hash")
+    private String tokenHash;
+
+    @Schema(description = "状态 0-有效 1-已轮换 2-已注销")
+    private Integer status;
+
+    @Schema(description = "过期时间")
+    @TableField("expire_time")
+    private LocalDateTime expireTime;
+
+    @Schema(description = "创建时间")
+    @TableField("create_time")
+    private LocalDateTime createTime;
+}
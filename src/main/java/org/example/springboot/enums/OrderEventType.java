@@ -0,0 +1,43 @@
+package org.example.springboot.enums;
+
+/**
+ * 订单事件类型枚举（订单状态变更时写入发件箱）
+ * @author system
+ */
+public enum OrderEventType {
+
+    /**
+     * 订单创建
+     */
+    CREATED("订单创建"),
+
+    /**
+     * 订单支付
+     */
+    PAID("订单支付"),
+
+    /**
+     * 订单发货
+     */
+    SHIPPED("订单发货"),
+
+    /**
+     * 确认收货
+     */
+    COMPLETED("确认收货"),
+
+    /**
+     * 订单关闭（用户取消、管理员取消、超时关闭）
+     */
+    CLOSED("订单关闭");
+
+    private final String description;
+
+    OrderEventType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
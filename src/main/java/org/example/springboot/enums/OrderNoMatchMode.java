@@ -0,0 +1,65 @@
+package org.example.springboot.enums;
+
+/**
+ * 订单号查找方式枚举
+ * @author system
+ */
+public enum OrderNoMatchMode {
+
+    /**
+     * 自动：8位及以下按尾号查找，更长的按前缀查找
+     */
+    AUTO("自动"),
+
+    /**
+     * 完整订单号精确匹配
+     */
+    EXACT("精确匹配"),
+
+    /**
+     * 订单号前缀匹配
+     */
+    PREFIX("前缀匹配"),
+
+    /**
+     * 订单号尾号匹配（通过倒序订单号索引）
+     */
+    SUFFIX("尾号匹配");
+
+    /**
+     * 自动模式下按尾号查找的最大长度
+     */
+    private static final int SUFFIX_MAX_LENGTH = 8;
+
+    private final String description;
+
+    OrderNoMatchMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 尾号匹配时倒序订单号上的前缀关键字：尾号倒序并转义LIKE通配符，
+     * 以 REVERSE(order_no) LIKE CONCAT(关键字, '%') 查询，倒序订单号函数索引可用于前缀LIKE
+     * @param orderNo 订单号尾号
+     */
+    public static String reverseForSuffix(String orderNo) {
+        String reversed = new StringBuilder(orderNo).reverse().toString();
+        return reversed.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * 解析实际使用的查找方式
+     * @param mode 指定的查找方式，为null或AUTO时按订单号长度判断
+     * @param orderNo 订单号关键字
+     */
+    public static OrderNoMatchMode resolve(OrderNoMatchMode mode, String orderNo) {
+        if (mode != null && mode != AUTO) {
+            return mode;
+        }
+        return orderNo.length() <= SUFFIX_MAX_LENGTH ? SUFFIX : PREFIX;
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.springboot.entity.DailyStats;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 订单统计汇总Mapper
+ * @author system
+ */
+@Mapper
+public interface DailyStatsMapper extends BaseMapper<DailyStats> {
+
+    /**
+     * 批量累加统计增量（不存在的小时自动创建）
+     * @param deltas 各小时的增量
+     * @return 影响行数
+     */
+    int upsertBatch(@Param("deltas") Collection<DailyStats> deltas);
+
+    /**
+     * 删除日期范围内的汇总
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（不含）
+     * @return 删除行数
+     */
+    int deleteRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 按订单表（含归档订单）计算时间范围内的小时汇总（不加锁的一致性读）
+     * @param start 订单创建时间下界（含）
+     * @param end 订单创建时间上界（不含）
+     * @param paidStatuses 计入销售额的订单状态
+     * @return 每个有订单的小时一行
+     */
+    List<DailyStats> selectHourlyRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                       @Param("paidStatuses") Collection<Integer> paidStatuses);
+
+    /**
+     * 按天合计汇总
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 每天一行（statHour为null），没有订单的日期不返回
+     */
+    List<DailyStats> selectDaily(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
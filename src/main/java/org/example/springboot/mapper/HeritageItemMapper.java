@@ -6,8 +6,11 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.example.springboot.entity.HeritageItem;
 import org.example.springboot.dto.query.HeritageItemListQueryDTO;
+import org.example.springboot.dto.response.GroupStatisticsDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 非遗作品数据访问接口
@@ -24,6 +27,32 @@ public interface HeritageItemMapper extends BaseMapper<HeritageItem> {
      */
     Page<HeritageItem> selectPageWithConditions(Page<HeritageItem> page, @Param("query") HeritageItemListQueryDTO queryDTO);
 
+    /**
+     * 游标分页查询非遗作品列表（按 create_time DESC, id DESC 排序）
+     * @param queryDTO 查询条件
+     * @param cursorTime 游标创建时间，首页为null
+     * @param cursorId 游标作品ID，首页为null
+     * @param limit 查询条数
+     * @return 作品列表
+     */
+    List<HeritageItem> selectPageByCursor(@Param("query") HeritageItemListQueryDTO queryDTO,
+                                          @Param("cursorTime") LocalDateTime cursorTime,
+                                          @Param("cursorId") String cursorId,
+                                          @Param("limit") Integer limit);
+
+    /**
+     * 按查询条件统计作品数量
+     * @param queryDTO 查询条件
+     * @return 数量
+     */
+    Long countWithConditions(@Param("query") HeritageItemListQueryDTO queryDTO);
+
+    /**
+     * 估算作品表总行数（取自表统计信息，不扫描数据）
+     * @return 估算行数
+     */
+    Long estimateTotalRows();
+
     /**
      * 根据类别统计作品数量
      * @param category 类别
@@ -31,6 +60,12 @@ public interface HeritageItemMapper extends BaseMapper<HeritageItem> {
      */
     Long countByCategory(@Param("category") String category);
 
+    /**
+     * 按类别分组统计作品数量（忽略空类别）
+     * @return 分组键为类别，按数量倒序
+     */
+    List<GroupStatisticsDTO> countGroupByCategory();
+
     /**
      * 根据地区统计作品数量
      * @param region 地区
@@ -59,6 +94,13 @@ public interface HeritageItemMapper extends BaseMapper<HeritageItem> {
      */
     List<HeritageItem> selectPopularItems(@Param("limit") Integer limit);
 
+    /**
+     * 批量累加作品浏览量（单条语句）
+     * @param deltas 作品ID -> 新增浏览量
+     * @return 更新行数
+     */
+    int batchIncrementViewCount(@Param("deltas") Map<String, Long> deltas);
+
     /**
      * 获取最新发布的作品列表
      * @param limit 限制数量
@@ -0,0 +1,95 @@
+package org.example.springboot.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.springboot.entity.ShopOrder;
+import org.example.springboot.entity.ShopOrderItem;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 订单归档Mapper（shop_order_archive / shop_order_item_archive，表结构与在线表一致）
+ * @author system
+ */
+@Mapper
+public interface ShopOrderArchiveMapper {
+
+    /**
+     * 按ID顺序查询在线表中可归档的订单ID
+     * @param statuses 可归档的状态
+     * @param before 创建时间早于该时间
+     * @param afterId 从该ID之后开始（键集分页）
+     * @param limit 最大条数
+     * @return 订单ID
+     */
+    List<Long> selectArchivableIds(@Param("statuses") Collection<Integer> statuses,
+                                   @Param("before") LocalDateTime before,
+                                   @Param("afterId") long afterId,
+                                   @Param("limit") int limit);
+
+    /**
+     * 复制订单到归档表（已存在的跳过，重复执行安全）
+     */
+    int copyOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * 复制订单明细到归档表
+     */
+    int copyOrderItems(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * 删除在线表中的订单明细
+     */
+    int deleteOrderItems(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * 删除在线表中的订单（仅删除仍为可归档状态的订单）
+     */
+    int deleteOrders(@Param("orderIds") Collection<Long> orderIds, @Param("statuses") Collection<Integer> statuses);
+
+    /**
+     * 统计归档订单数
+     * @param userId 用户ID，为null时不限
+     * @param status 订单状态，为null时不限
+     */
+    long countOrders(@Param("userId") Long userId, @Param("status") Integer status);
+
+    /**
+     * 归档订单中最晚的创建时间
+     * @param userId 用户ID，为null时不限
+     * @param status 订单状态，为null时不限
+     * @return 创建时间，没有符合条件的归档订单时为null
+     */
+    LocalDateTime selectLatestCreateTime(@Param("userId") Long userId, @Param("status") Integer status);
+
+    /**
+     * 分页查询归档订单，按创建时间倒序
+     */
+    List<ShopOrder> selectOrders(@Param("userId") Long userId, @Param("status") Integer status,
+                                 @Param("offset") long offset, @Param("limit") long limit);
+
+    /**
+     * 按订单号查找归档订单，按创建时间倒序
+     * @param status 订单状态，为null时不限
+     * @param mode 查找方式 EXACT/PREFIX/SUFFIX
+     * @param orderNo 订单号关键字（精确、前缀匹配时使用）
+     * @param reversedOrderNo 倒序并转义通配符的尾号（尾号匹配时使用）
+     * @param limit 最大条数
+     */
+    List<ShopOrder> searchOrders(@Param("status") Integer status, @Param("mode") String mode,
+                                 @Param("orderNo") String orderNo,
+                                 @Param("reversedOrderNo") String reversedOrderNo,
+                                 @Param("limit") int limit);
+
+    /**
+     * 按ID查询归档订单
+     */
+    ShopOrder selectOrderById(@Param("id") Long id);
+
+    /**
+     * 批量查询归档订单明细
+     */
+    List<ShopOrderItem> selectItemsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
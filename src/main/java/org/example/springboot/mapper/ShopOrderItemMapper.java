@@ -2,13 +2,32 @@ package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 import org.example.springboot.entity.ShopOrderItem;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 订单明细Mapper
  * @author system
  */
 @Mapper
 public interface ShopOrderItemMapper extends BaseMapper<ShopOrderItem> {
-}
 
+    /**
+     * 流式读取指定状态订单（含归档订单）的 (用户ID, 商品ID)，逐行回调，不在内存中保留整个结果集
+     * @param statuses 订单状态
+     * @param handler 行处理器，每行包含 userId、productId
+     */
+    void streamPurchasedProducts(@Param("statuses") List<Integer> statuses,
+                                 ResultHandler<Map<String, Object>> handler);
+
+    /**
+     * 批量插入订单明细（单条多值INSERT，回填自增ID）
+     * @param items 订单明细
+     * @return 插入行数
+     */
+    int insertBatch(@Param("items") List<ShopOrderItem> items);
+}
@@ -2,7 +2,14 @@ package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.springboot.dto.response.GroupStatisticsDTO;
 import org.example.springboot.entity.ShopOrder;
+import org.example.springboot.entity.ShopOrderItem;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 订单Mapper
@@ -10,5 +17,49 @@ import org.example.springboot.entity.ShopOrder;
  */
 @Mapper
 public interface ShopOrderMapper extends BaseMapper<ShopOrder> {
-}
 
+    /**
+     * 查询库存待同步的订单ID（热卖库存重启对账用）
+     * @return 订单ID列表
+     */
+    List<Long> selectStockPendingOrderIds();
+
+    /**
+     * 锁定并查询仍处于库存待同步状态的订单明细
+     * @param orderIds 订单ID
+     * @return 订单明细（orderId、productId、quantity）
+     */
+    List<ShopOrderItem> selectStockPendingItemsForUpdate(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * 清除订单的库存待同步标记
+     * @param orderIds 订单ID
+     * @return 实际清除的订单数
+     */
+    int clearStockPending(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * 锁定并查询指定状态的订单（批量取消用）
+     * @param orderIds 订单ID
+     * @param statuses 允许的订单状态
+     * @return 订单（id、orderNo、userId、payAmount、status、stockPending、createTime）
+     */
+    List<ShopOrder> selectByStatusForUpdate(@Param("orderIds") Collection<Long> orderIds,
+                                            @Param("statuses") Collection<Integer> statuses);
+
+    /**
+     * 批量更新订单状态
+     * @param orderIds 订单ID
+     * @param status 目标状态
+     * @return 影响行数
+     */
+    int updateStatusBatch(@Param("orderIds") Collection<Long> orderIds, @Param("status") Integer status);
+
+    /**
+     * 按状态统计订单数与实付金额（含归档订单）
+     * @param since 创建时间下界，为null时不限
+     * @return 分组键为状态码
+     */
+    List<GroupStatisticsDTO> selectStatusStatistics(@Param("since") LocalDateTime since);
+
+}
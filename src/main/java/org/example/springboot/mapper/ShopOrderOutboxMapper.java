@@ -0,0 +1,68 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.springboot.entity.ShopOrderOutbox;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 订单事件发件箱Mapper
+ * @author system
+ */
+@Mapper
+public interface ShopOrderOutboxMapper extends BaseMapper<ShopOrderOutbox> {
+
+    /**
+     * 批量写入事件
+     * @param events 事件
+     * @return 写入行数
+     */
+    int insertBatch(@Param("events") List<ShopOrderOutbox> events);
+
+    /**
+     * 按ID顺序查询到期的待投递事件
+     * @param limit 最大条数
+     * @return 事件列表
+     */
+    List<ShopOrderOutbox> selectDue(@Param("limit") int limit);
+
+    /**
+     * 查询指定类型的全部待投递事件（不论是否到期）
+     * @param eventTypes 事件类型
+     * @return 事件列表
+     */
+    List<ShopOrderOutbox> selectPendingByTypes(@Param("eventTypes") Collection<String> eventTypes);
+
+    /**
+     * 标记事件已投递
+     * @param ids 事件ID
+     * @return 影响行数
+     */
+    int markDispatched(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 记录投递失败并推迟下次投递
+     * @param ids 事件ID
+     * @param delaySeconds 推迟秒数
+     * @return 影响行数
+     */
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("delaySeconds") long delaySeconds);
+
+    /**
+     * 最早的待投递事件创建时间（投递延迟指标）
+     * @return 创建时间，没有待投递事件时为null
+     */
+    LocalDateTime selectOldestPendingTime();
+
+    /**
+     * 删除早于指定时间的已投递事件
+     * @param before 截止时间
+     * @param limit 单次最大删除条数
+     * @return 删除行数
+     */
+    int deleteDispatchedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -2,13 +2,71 @@ package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.example.springboot.entity.ShopProduct;
 
+import java.util.Map;
+
 /**
  * 商品数据访问接口
  * @author system
  */
 @Mapper
 public interface ShopProductMapper extends BaseMapper<ShopProduct> {
-}
 
+    /**
+     * 条件扣减库存：仅当商品上架且库存充足时扣减
+     * @param id 商品ID
+     * @param quantity 扣减数量
+     * @return 影响行数，0表示已下架或库存不足
+     */
+    int decreaseStock(@Param("id") String id, @Param("quantity") int quantity);
+
+    /**
+     * 批量条件扣减库存：一条语句扣减多个商品，每个商品都要求上架且库存充足
+     * 按主键顺序加锁，多个结算事务之间不会因加锁顺序不同而死锁
+     * @param quantities 商品ID -> 扣减数量
+     * @return 影响行数，小于商品数表示有商品已下架或库存不足
+     */
+    int decreaseStockBatch(@Param("quantities") Map<String, Integer> quantities);
+
+    /**
+     * 批量回补库存：一条语句按商品汇总回补
+     * @param quantities 商品ID -> 回补数量
+     * @return 影响行数
+     */
+    int increaseStockBatch(@Param("quantities") Map<String, Integer> quantities);
+
+    /**
+     * 回补库存
+     * @param id 商品ID
+     * @param quantity 回补数量
+     * @return 影响行数，0表示商品不存在
+     */
+    int increaseStock(@Param("id") String id, @Param("quantity") int quantity);
+
+    /**
+     * 按版本号设置库存（乐观锁）
+     * @param id 商品ID
+     * @param stock 新库存
+     * @param version 读取时的版本号
+     * @return 影响行数，0表示版本已变化
+     */
+    int updateStockWithVersion(@Param("id") String id, @Param("stock") int stock, @Param("version") int version);
+
+    /**
+     * 无条件调整库存（热卖库存批量同步用，正数增加、负数扣减）
+     * @param id 商品ID
+     * @param delta 调整量
+     * @return 影响行数
+     */
+    int adjustStock(@Param("id") String id, @Param("delta") int delta);
+
+    /**
+     * 设置热卖库存模式
+     * @param id 商品ID
+     * @param hotStock 0关闭 1开启
+     * @return 影响行数
+     */
+    int updateHotStock(@Param("id") String id, @Param("hotStock") int hotStock);
+}
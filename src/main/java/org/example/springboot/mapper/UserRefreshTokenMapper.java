@@ -0,0 +1,13 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.example.springboot.entity.UserRefreshToken;
+
+/**
+ * 刷新令牌Mapper
+ * @author system
+ */
+@Mapper
+public interface UserRefreshTokenMapper extends BaseMapper<UserRefreshToken> {
+}
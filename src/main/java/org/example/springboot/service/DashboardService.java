@@ -2,11 +2,19 @@ package org.example.springboot.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.example.springboot.dto.response.DashboardStatisticsResponseDTO;
+import org.example.springboot.dto.response.GroupStatisticsDTO;
 import org.example.springboot.entity.*;
+import org.example.springboot.enums.OrderStatus;
 import org.example.springboot.mapper.*;
+import org.example.springboot.service.dashboard.DailyStatsService;
+import org.example.springboot.service.dashboard.DashboardMetric;
+import org.example.springboot.service.dashboard.DashboardPushService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -14,16 +22,58 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * 仪表板服务
+ *
+ * 订单、销售额与分布类指标全部由数据库聚合查询得出（GROUP BY / SUM），
+ * 不把订单或作品加载到内存，内存占用与数据量无关；
+ * 订单与销售趋势读取按小时维护的统计汇总表（见 DailyStatsService）
+ *
+ * 各指标相互独立，在有界线程池中并行计算，整体耗时取决于最慢的指标而非各指标之和；
+ * 每个指标按自己的存活时间缓存（累计类较长、今日类较短），并记录各自的计算耗时
+ *
  * @author system
  */
 @Service
 @Slf4j
 public class DashboardService {
 
+    private static final int TREND_DAYS = 7;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /**
+     * 指标计算线程数
+     */
+    @Value("${shop.dashboard.metric-threads:4}")
+    private int metricThreads;
+
+    /**
+     * 统计接口等待全部指标的最长时间
+     */
+    @Value("${shop.dashboard.deadline-ms:3000}")
+    private long deadlineMillis;
+
+    /**
+     * 累计类指标的缓存时间
+     */
+    @Value("${shop.dashboard.total-ttl-seconds:60}")
+    private long totalTtlSeconds;
+
+    /**
+     * 今日类指标与趋势的缓存时间
+     */
+    @Value("${shop.dashboard.today-ttl-seconds:10}")
+    private long todayTtlSeconds;
+
     @Resource
     private UserMapper userMapper;
 
@@ -45,34 +95,154 @@ public class DashboardService {
     @Resource
     private InheritorMapper inheritorMapper;
 
+    @Resource
+    private DailyStatsService dailyStatsService;
+
+    @Resource
+    private DashboardPushService dashboardPushService;
+
+    private ThreadPoolExecutor metricExecutor;
+
+    private final Map<String, DashboardMetric<?>> metrics = new LinkedHashMap<>();
+
+    private DashboardMetric<Long> totalUsersMetric;
+    private DashboardMetric<Long> todayNewUsersMetric;
+    private DashboardMetric<Map<Integer, GroupStatisticsDTO>> orderStatusMetric;
+    private DashboardMetric<Map<Integer, GroupStatisticsDTO>> todayOrderStatusMetric;
+    private DashboardMetric<Long> totalHeritageItemsMetric;
+    private DashboardMetric<Long> totalCoursesMetric;
+    private DashboardMetric<Long> totalActivitiesMetric;
+    private DashboardMetric<Long> totalProductsMetric;
+    private DashboardMetric<Long> totalInheritorsMetric;
+    private DashboardMetric<Map<String, Long>> heritageCategoryMetric;
+    private DashboardMetric<List<DailyStats>> orderTrendMetric;
+
+    @PostConstruct
+    public void init() {
+        metricExecutor = new ThreadPoolExecutor(metricThreads, metricThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(64), r -> {
+            Thread thread = new Thread(r, "dashboard-metric");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        long totalTtl = totalTtlSeconds * 1000;
+        long todayTtl = todayTtlSeconds * 1000;
+        totalUsersMetric = register("totalUsers", totalTtl, this::getTotalUsers);
+        todayNewUsersMetric = register("todayNewUsers", todayTtl, this::getTodayNewUsers);
+        orderStatusMetric = register("orderStatus", totalTtl, () -> getOrderStatusStatistics(null));
+        todayOrderStatusMetric = register("todayOrderStatus", todayTtl,
+                () -> getOrderStatusStatistics(LocalDate.now().atStartOfDay()));
+        totalHeritageItemsMetric = register("totalHeritageItems", totalTtl, this::getTotalHeritageItems);
+        totalCoursesMetric = register("totalCourses", totalTtl, this::getTotalCourses);
+        totalActivitiesMetric = register("totalActivities", totalTtl, this::getTotalActivities);
+        totalProductsMetric = register("totalProducts", totalTtl, this::getTotalProducts);
+        totalInheritorsMetric = register("totalInheritors", totalTtl, this::getTotalInheritors);
+        heritageCategoryMetric = register("heritageCategory", totalTtl, this::getHeritageCategoryDistribution);
+        orderTrendMetric = register("orderTrend", todayTtl, () -> {
+            LocalDate today = LocalDate.now();
+            return dailyStatsService.getDailyStats(today.minusDays(TREND_DAYS - 1), today);
+        });
+        log.info("仪表板指标初始化: 指标数={}, 线程数={}, 截止时间={}ms", metrics.size(), metricThreads, deadlineMillis);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        metricExecutor.shutdownNow();
+    }
+
     /**
      * 获取仪表板统计数据
+     * 各指标相互独立，并行计算后在截止时间内汇总；超时或失败的指标返回上一次成功的结果
      */
     public DashboardStatisticsResponseDTO getStatistics() {
         log.info("开始获取仪表板统计数据");
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+
+        CompletableFuture<Long> totalUsers = totalUsersMetric.getAsync(metricExecutor);
+        CompletableFuture<Long> todayNewUsers = todayNewUsersMetric.getAsync(metricExecutor);
+        CompletableFuture<Map<Integer, GroupStatisticsDTO>> orderStatus = orderStatusMetric.getAsync(metricExecutor);
+        CompletableFuture<Map<Integer, GroupStatisticsDTO>> todayOrderStatus = todayOrderStatusMetric.getAsync(metricExecutor);
+        CompletableFuture<Long> totalHeritageItems = totalHeritageItemsMetric.getAsync(metricExecutor);
+        CompletableFuture<Long> totalCourses = totalCoursesMetric.getAsync(metricExecutor);
+        CompletableFuture<Long> totalActivities = totalActivitiesMetric.getAsync(metricExecutor);
+        CompletableFuture<Long> totalProducts = totalProductsMetric.getAsync(metricExecutor);
+        CompletableFuture<Long> totalInheritors = totalInheritorsMetric.getAsync(metricExecutor);
+        CompletableFuture<Map<String, Long>> heritageCategory = heritageCategoryMetric.getAsync(metricExecutor);
+        CompletableFuture<List<DailyStats>> orderTrend = orderTrendMetric.getAsync(metricExecutor);
+
+        // 订单数、销售额与状态分布共用同一次按状态聚合的结果
+        Map<Integer, GroupStatisticsDTO> totalByStatus = await(orderStatusMetric, orderStatus, deadline, Collections.emptyMap());
+        Map<Integer, GroupStatisticsDTO> todayByStatus = await(todayOrderStatusMetric, todayOrderStatus, deadline,
+                Collections.emptyMap());
+        List<DailyStats> dailyStats = await(orderTrendMetric, orderTrend, deadline, Collections.emptyList());
 
         DashboardStatisticsResponseDTO statistics = DashboardStatisticsResponseDTO.builder()
-                .totalUsers(getTotalUsers())
-                .todayNewUsers(getTodayNewUsers())
-                .totalOrders(getTotalOrders())
-                .todayOrders(getTodayOrders())
-                .totalSales(getTotalSales())
-                .todaySales(getTodaySales())
-                .totalHeritageItems(getTotalHeritageItems())
-                .totalCourses(getTotalCourses())
-                .totalActivities(getTotalActivities())
-                .totalProducts(getTotalProducts())
-                .totalInheritors(getTotalInheritors())
-                .orderStatusDistribution(getOrderStatusDistribution())
-                .heritageCategoryDistribution(getHeritageCategoryDistribution())
-                .last7DaysOrders(getLast7DaysOrders())
-                .last7DaysSales(getLast7DaysSales())
+                .totalUsers(await(totalUsersMetric, totalUsers, deadline, null))
+                .todayNewUsers(await(todayNewUsersMetric, todayNewUsers, deadline, null))
+                .totalOrders(sumCount(totalByStatus))
+                .todayOrders(sumCount(todayByStatus))
+                .totalSales(sumPaidAmount(totalByStatus))
+                .todaySales(sumPaidAmount(todayByStatus))
+                .totalHeritageItems(await(totalHeritageItemsMetric, totalHeritageItems, deadline, null))
+                .totalCourses(await(totalCoursesMetric, totalCourses, deadline, null))
+                .totalActivities(await(totalActivitiesMetric, totalActivities, deadline, null))
+                .totalProducts(await(totalProductsMetric, totalProducts, deadline, null))
+                .totalInheritors(await(totalInheritorsMetric, totalInheritors, deadline, null))
+                .orderStatusDistribution(toStatusDistribution(totalByStatus))
+                .heritageCategoryDistribution(await(heritageCategoryMetric, heritageCategory, deadline,
+                        Collections.emptyMap()))
+                .last7DaysOrders(toLast7DaysTrend(dailyStats, false))
+                .last7DaysSales(toLast7DaysTrend(dailyStats, true))
                 .build();
 
-        log.info("仪表板统计数据获取完成");
+        log.info("仪表板统计数据获取完成，耗时: {}ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
         return statistics;
     }
 
+    /**
+     * 各指标的缓存命中、计算耗时、失败与超时统计
+     */
+    public Map<String, Object> metricStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (DashboardMetric<?> metric : metrics.values()) {
+            stats.put(metric.getName(), metric.stats());
+        }
+        stats.put("executorQueueSize", metricExecutor.getQueue().size());
+        stats.put("push", dashboardPushService.stats());
+        stats.put("executorActiveThreads", metricExecutor.getActiveCount());
+        return stats;
+    }
+
+    private <T> DashboardMetric<T> register(String name, long ttlMillis, Supplier<T> loader) {
+        DashboardMetric<T> metric = new DashboardMetric<>(name, ttlMillis, loader);
+        metrics.put(name, metric);
+        return metric;
+    }
+
+    /**
+     * 在截止时间内等待指标结果；超时或失败时返回上一次成功的结果，从未成功时返回默认值
+     */
+    private <T> T await(DashboardMetric<T> metric, CompletableFuture<T> future, long deadline, T defaultValue) {
+        T value;
+        try {
+            value = future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            metric.recordTimeout();
+            log.warn("仪表板指标计算超时，使用上次结果: {}", metric.getName());
+            value = metric.lastValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            value = metric.lastValue();
+        } catch (ExecutionException e) {
+            log.error("仪表板指标计算失败，使用上次结果: {}", metric.getName(), e.getCause());
+            value = metric.lastValue();
+        }
+        return value != null ? value : defaultValue;
+    }
+
     /**
      * 获取总用户数
      */
@@ -91,50 +261,39 @@ public class DashboardService {
     }
 
     /**
-     * 获取总订单数
+     * 按状态聚合订单数与实付金额
+     * @param since 创建时间下界，为null时统计全部订单
+     * @return 状态码 -> 聚合结果
      */
-    private Long getTotalOrders() {
-        return shopOrderMapper.selectCount(null);
-    }
-
-    /**
-     * 获取今日订单数
-     */
-    private Long getTodayOrders() {
-        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-        LambdaQueryWrapper<ShopOrder> wrapper = Wrappers.lambdaQuery();
-        wrapper.ge(ShopOrder::getCreateTime, todayStart);
-        return shopOrderMapper.selectCount(wrapper);
+    private Map<Integer, GroupStatisticsDTO> getOrderStatusStatistics(LocalDateTime since) {
+        Map<Integer, GroupStatisticsDTO> result = new HashMap<>();
+        for (GroupStatisticsDTO row : shopOrderMapper.selectStatusStatistics(since)) {
+            result.put(Integer.valueOf(row.getGroupKey()), row);
+        }
+        return result;
     }
 
     /**
-     * 获取总销售额
+     * 订单总数
      */
-    private BigDecimal getTotalSales() {
-        List<ShopOrder> orders = shopOrderMapper.selectList(
-                Wrappers.lambdaQuery(ShopOrder.class)
-                        .in(ShopOrder::getStatus, Arrays.asList(1, 2, 3)) // 已支付、已发货、已完成
-        );
-        return orders.stream()
-                .map(ShopOrder::getPayAmount)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private Long sumCount(Map<Integer, GroupStatisticsDTO> byStatus) {
+        return byStatus.values().stream()
+                .mapToLong(row -> row.getCount() == null ? 0 : row.getCount())
+                .sum();
     }
 
     /**
-     * 获取今日销售额
+     * 销售额（已支付、已发货、已完成订单的实付金额）
      */
-    private BigDecimal getTodaySales() {
-        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-        List<ShopOrder> orders = shopOrderMapper.selectList(
-                Wrappers.lambdaQuery(ShopOrder.class)
-                        .ge(ShopOrder::getCreateTime, todayStart)
-                        .in(ShopOrder::getStatus, Arrays.asList(1, 2, 3))
-        );
-        return orders.stream()
-                .map(ShopOrder::getPayAmount)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private BigDecimal sumPaidAmount(Map<Integer, GroupStatisticsDTO> byStatus) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Integer status : DailyStatsService.PAID_STATUSES) {
+            GroupStatisticsDTO row = byStatus.get(status);
+            if (row != null && row.getAmount() != null) {
+                total = total.add(row.getAmount());
+            }
+        }
+        return total;
     }
 
     /**
@@ -173,16 +332,14 @@ public class DashboardService {
     }
 
     /**
-     * 获取订单状态分布
+     * 订单状态分布（所有状态都返回，没有订单的状态为0）
      */
-    private Map<String, Long> getOrderStatusDistribution() {
-        List<ShopOrder> orders = shopOrderMapper.selectList(null);
+    private Map<String, Long> toStatusDistribution(Map<Integer, GroupStatisticsDTO> byStatus) {
         Map<String, Long> distribution = new LinkedHashMap<>();
-        distribution.put("待支付", orders.stream().filter(o -> o.getStatus() == 0).count());
-        distribution.put("已支付", orders.stream().filter(o -> o.getStatus() == 1).count());
-        distribution.put("已发货", orders.stream().filter(o -> o.getStatus() == 2).count());
-        distribution.put("已完成", orders.stream().filter(o -> o.getStatus() == 3).count());
-        distribution.put("已关闭", orders.stream().filter(o -> o.getStatus() == 4).count());
+        for (OrderStatus status : OrderStatus.values()) {
+            GroupStatisticsDTO row = byStatus.get(status.getCode());
+            distribution.put(status.getDescription(), row == null || row.getCount() == null ? 0L : row.getCount());
+        }
         return distribution;
     }
 
@@ -190,75 +347,65 @@ public class DashboardService {
      * 获取非遗项目类别分布
      */
     private Map<String, Long> getHeritageCategoryDistribution() {
-        List<HeritageItem> items = heritageItemMapper.selectList(null);
-        return items.stream()
-                .filter(item -> item.getCategory() != null && !item.getCategory().trim().isEmpty())
-                .collect(Collectors.groupingBy(
-                        HeritageItem::getCategory,
-                        LinkedHashMap::new,
-                        Collectors.counting()
-                ));
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (GroupStatisticsDTO row : heritageItemMapper.countGroupByCategory()) {
+            distribution.put(row.getGroupKey(), row.getCount());
+        }
+        return distribution;
     }
 
     /**
-     * 获取近7天订单趋势
+     * 按天查询订单与销售趋势
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
      */
-    private List<DashboardStatisticsResponseDTO.DailyStatistics> getLast7DaysOrders() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd");
+    public List<DashboardStatisticsResponseDTO.DailyStatistics> getDailyTrend(LocalDate startDate, LocalDate endDate) {
         List<DashboardStatisticsResponseDTO.DailyStatistics> result = new ArrayList<>();
-        
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
-            
-            LambdaQueryWrapper<ShopOrder> wrapper = Wrappers.lambdaQuery();
-            wrapper.ge(ShopOrder::getCreateTime, startOfDay)
-                   .lt(ShopOrder::getCreateTime, endOfDay);
-            
-            Long count = shopOrderMapper.selectCount(wrapper);
-            
+        for (DailyStats row : dailyStatsService.getDailyStats(startDate, endDate)) {
             result.add(DashboardStatisticsResponseDTO.DailyStatistics.builder()
-                    .date(date.format(formatter))
-                    .count(count)
+                    .date(row.getStatDate().format(DATE_FORMATTER))
+                    .count(row.getOrderCount())
+                    .amount(row.getSalesAmount())
                     .build());
         }
-        
         return result;
     }
 
     /**
-     * 获取近7天销售趋势
+     * 按小时查询某天的订单与销售趋势
+     * @param date 日期
      */
-    private List<DashboardStatisticsResponseDTO.DailyStatistics> getLast7DaysSales() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd");
-        List<DashboardStatisticsResponseDTO.DailyStatistics> result = new ArrayList<>();
-        
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
-            
-            List<ShopOrder> orders = shopOrderMapper.selectList(
-                    Wrappers.lambdaQuery(ShopOrder.class)
-                            .ge(ShopOrder::getCreateTime, startOfDay)
-                            .lt(ShopOrder::getCreateTime, endOfDay)
-                            .in(ShopOrder::getStatus, Arrays.asList(1, 2, 3))
-            );
-            
-            BigDecimal amount = orders.stream()
-                    .map(ShopOrder::getPayAmount)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
+    public List<DashboardStatisticsResponseDTO.DailyStatistics> getHourlyTrend(LocalDate date) {
+        List<DashboardStatisticsResponseDTO.DailyStatistics> result = new ArrayList<>(24);
+        for (DailyStats row : dailyStatsService.getHourlyStats(date)) {
             result.add(DashboardStatisticsResponseDTO.DailyStatistics.builder()
-                    .date(date.format(formatter))
-                    .amount(amount)
+                    .date(String.format("%02d:00", row.getStatHour()))
+                    .count(row.getOrderCount())
+                    .amount(row.getSalesAmount())
                     .build());
         }
-        
         return result;
     }
 
-}
+    /**
+     * 转换为近7天趋势
+     * @param amount true为销售趋势，false为订单趋势
+     */
+    private List<DashboardStatisticsResponseDTO.DailyStatistics> toLast7DaysTrend(List<DailyStats> dailyStats,
+                                                                                  boolean amount) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd");
+        List<DashboardStatisticsResponseDTO.DailyStatistics> result = new ArrayList<>(dailyStats.size());
+        for (DailyStats row : dailyStats) {
+            DashboardStatisticsResponseDTO.DailyStatistics.DailyStatisticsBuilder builder =
+                    DashboardStatisticsResponseDTO.DailyStatistics.builder().date(row.getStatDate().format(formatter));
+            if (amount) {
+                builder.amount(row.getSalesAmount());
+            } else {
+                builder.count(row.getOrderCount());
+            }
+            result.add(builder.build());
+        }
+        return result;
+    }
 
+}
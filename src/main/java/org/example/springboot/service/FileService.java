@@ -14,6 +14,7 @@ import org.example.springboot.enums.FileBusinessTypeEnum;
 import org.example.springboot.enums.FileTypeEnum;
 import org.example.springboot.exception.BusinessException;
 import org.example.springboot.mapper.SysFileInfoMapper;
+import org.example.springboot.service.cache.HeritageItemDetailCache;
 import org.example.springboot.util.FileUtil;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -41,6 +42,9 @@ public class FileService {
     @Resource
     private BussinessFileValidationService bussinessFileValidationService;
 
+    @Resource
+    private HeritageItemDetailCache heritageItemDetailCache;
+
     @Value("${file.upload.path:/files}")
     private String uploadBasePath;
 
@@ -76,6 +80,7 @@ public class FileService {
             // 5. 保存文件信息到数据库
             SysFileInfo fileInfo = createFileInfo(file, uploadDTO, filePath, uploadUserId);
             fileInfoMapper.insert(fileInfo);
+            evictBusinessCache(uploadDTO.getBusinessType(), uploadDTO.getBusinessId());
 
             log.info("文件上传成功: ID={}, 路径={}", fileInfo.getId(), filePath);
             return convertToDTO(fileInfo);
@@ -141,6 +146,7 @@ public class FileService {
             // 更新文件信息
             updateTempFileToFormal(tempFile, uploadDTO);
             fileInfoMapper.updateById(tempFile);
+            evictBusinessCache(tempFile.getBusinessType(), tempFile.getBusinessId());
 
             log.info("临时文件确认成功: ID={}", tempFileId);
             return convertToDTO(tempFile);
@@ -208,6 +214,7 @@ public class FileService {
             if (result <= 0) {
                 throw new BusinessException("数据库删除失败");
             }
+            evictBusinessCache(fileInfo.getBusinessType(), fileInfo.getBusinessId());
 
             // 删除物理文件
             boolean fileDeleted = deletePhysicalFile(fileInfo.getFilePath());
@@ -255,6 +262,7 @@ public class FileService {
 
             // 物理删除数据库记录
             int result = fileInfoMapper.deleteByIds(fileIds);
+            evictBusinessCache(businessType, businessId);
 
             // 删除物理文件
             int deletedFileCount = 0;
@@ -348,6 +356,15 @@ public class FileService {
 
     // ========== 私有方法 ==========
 
+    /**
+     * 业务文件变更后失效对应的业务缓存（作品详情包含封面和媒体文件）
+     */
+    private void evictBusinessCache(String businessType, String businessId) {
+        if (FileBusinessTypeEnum.HERITAGE_ITEM.getCode().equals(businessType)) {
+            heritageItemDetailCache.invalidate(businessId);
+        }
+    }
+
 
 
 
@@ -3,14 +3,20 @@ package org.example.springboot.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import jakarta.annotation.Resource;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.example.springboot.entity.HeritageItem;
@@ -22,12 +28,17 @@ import org.example.springboot.mapper.UserMapper;
 import org.example.springboot.dto.command.HeritageItemCreateCommandDTO;
 import org.example.springboot.dto.command.HeritageItemUpdateCommandDTO;
 import org.example.springboot.dto.query.HeritageItemListQueryDTO;
+import org.example.springboot.dto.response.CursorPageResponseDTO;
 import org.example.springboot.dto.response.HeritageItemDetailResponseDTO;
 import org.example.springboot.enums.HeritageItemStatus;
 import org.example.springboot.exception.BusinessException;
 import org.example.springboot.exception.ServiceException;
+import org.example.springboot.service.cache.HeritageItemDetailCache;
 import org.example.springboot.service.convert.HeritageItemConvert;
+import org.example.springboot.service.ranking.HeritageItemPopularityRanking;
+import org.example.springboot.service.search.HeritageSearchIndex;
 import org.example.springboot.util.JwtTokenUtils;
+import org.example.springboot.util.TransactionUtils;
 
 /**
  * 非遗作品业务逻辑层
@@ -48,6 +59,21 @@ public class HeritageItemService {
     @Resource
     private UserMapper userMapper;
 
+    @Resource
+    private HeritageSearchIndex heritageSearchIndex;
+
+    @Resource
+    private HeritageItemDetailCache heritageItemDetailCache;
+
+    @Resource
+    private HeritageItemPopularityRanking heritageItemPopularityRanking;
+
+    /**
+     * 搜索模式：index 内存倒排索引（默认），sql 数据库模糊查询
+     */
+    @Value("${heritage.search.mode:index}")
+    private String searchMode;
+
     /**
      * 创建非遗作品
      * @param createDTO 创建命令
@@ -81,6 +107,7 @@ public class HeritageItemService {
             // 创建作品实体
             HeritageItem item = HeritageItemConvert.createCommandToEntity(createDTO, currentUserId);
             heritageItemMapper.insert(item);
+            TransactionUtils.afterCommit(() -> heritageSearchIndex.upsert(item));
 
             // 记录创建日志，包含状态变更信息
             String statusChangeInfo = "";
@@ -90,8 +117,8 @@ public class HeritageItemService {
             log.info("非遗作品创建成功: id={}, title={}, creator={}, status={}{}", 
                     item.getId(), item.getTitle(), currentUserId, item.getStatus(), statusChangeInfo);
 
-            // 查询并返回详情
-            return getHeritageItemById(item.getId());
+            // 查询并返回详情（事务未提交，不经过缓存）
+            return loadHeritageItemDetail(item.getId());
 
         } catch (BusinessException e) {
             throw e;
@@ -108,17 +135,11 @@ public class HeritageItemService {
      */
     public HeritageItemDetailResponseDTO getHeritageItemById(String itemId) {
         try {
-            HeritageItem item = heritageItemMapper.selectById(itemId);
-            if (item == null) {
-                throw new BusinessException("作品不存在");
+            HeritageItemDetailResponseDTO detail = heritageItemDetailCache.get(itemId, this::loadHeritageItemDetail);
+            if (HeritageItemStatus.PUBLISHED.getCode().equals(detail.getStatus())) {
+                heritageItemPopularityRanking.recordView(itemId);
             }
-
-            HeritageItemDetailResponseDTO response = HeritageItemConvert.entityToDetailResponse(item);
-            
-            // 填充关联信息
-            fillItemInfo(response);
-
-            return response;
+            return detail;
 
         } catch (BusinessException e) {
             throw e;
@@ -158,6 +179,65 @@ public class HeritageItemService {
         }
     }
 
+    /**
+     * 游标分页查询非遗作品列表
+     * 按 (create_time, id) 倒序定位下一页，深翻页不再随偏移量变慢，且默认不执行COUNT
+     * @param queryDTO 查询条件（cursor 为上一页返回的 nextCursor）
+     * @return 作品游标分页结果
+     */
+    public CursorPageResponseDTO<HeritageItemDetailResponseDTO> getHeritageItemCursorPage(HeritageItemListQueryDTO queryDTO) {
+        try {
+            int size = queryDTO.getSize() != null && queryDTO.getSize() > 0 ? queryDTO.getSize() : 10;
+            boolean firstPage = !StringUtils.hasText(queryDTO.getCursor());
+
+            LocalDateTime cursorTime = null;
+            String cursorId = null;
+            if (!firstPage) {
+                String[] cursor = decodeCursor(queryDTO.getCursor());
+                cursorTime = LocalDateTime.parse(cursor[0]);
+                cursorId = cursor[1];
+            }
+
+            // 多查一条用于判断是否还有下一页
+            List<HeritageItem> items = heritageItemMapper.selectPageByCursor(queryDTO, cursorTime, cursorId, size + 1);
+            boolean hasMore = items.size() > size;
+            if (hasMore) {
+                items = items.subList(0, size);
+            }
+
+            List<HeritageItemDetailResponseDTO> records = items.stream()
+                    .map(HeritageItemConvert::entityToDetailResponse)
+                    .collect(Collectors.toList());
+            fillItemInfoBatch(records);
+
+            CursorPageResponseDTO<HeritageItemDetailResponseDTO> result = CursorPageResponseDTO.<HeritageItemDetailResponseDTO>builder()
+                    .records(records)
+                    .size(size)
+                    .hasMore(hasMore)
+                    .nextCursor(hasMore ? encodeCursor(items.get(items.size() - 1)) : null)
+                    .build();
+
+            // 总数只在首页按需计算：无筛选条件时读取表统计信息估算，否则精确统计
+            if (firstPage && Boolean.TRUE.equals(queryDTO.getWithTotal())) {
+                if (hasFilterConditions(queryDTO)) {
+                    result.setTotal(heritageItemMapper.countWithConditions(queryDTO));
+                    result.setTotalEstimated(false);
+                } else {
+                    Long estimated = heritageItemMapper.estimateTotalRows();
+                    result.setTotal(estimated != null ? estimated : heritageItemMapper.selectCount(null));
+                    result.setTotalEstimated(estimated != null);
+                }
+            }
+            return result;
+
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("游标分页查询作品列表失败: cursor={}", queryDTO.getCursor(), e);
+            throw new ServiceException("查询失败，请稍后重试");
+        }
+    }
+
     /**
      * 更新非遗作品
      * @param itemId 作品ID
@@ -188,10 +268,13 @@ public class HeritageItemService {
             // 应用更新
             HeritageItemConvert.applyUpdateToEntity(item, updateDTO);
             heritageItemMapper.updateById(item);
+            heritageItemDetailCache.invalidate(itemId);
+            TransactionUtils.afterCommit(() -> heritageSearchIndex.upsert(item));
 
             log.info("非遗作品更新成功: id={}, title={}", item.getId(), item.getTitle());
 
-            return getHeritageItemById(itemId);
+            // 事务未提交，不经过缓存
+            return loadHeritageItemDetail(itemId);
 
         } catch (BusinessException e) {
             throw e;
@@ -228,6 +311,11 @@ public class HeritageItemService {
 
             // 删除作品
             heritageItemMapper.deleteById(itemId);
+            heritageItemDetailCache.invalidate(itemId);
+            TransactionUtils.afterCommit(() -> {
+                heritageSearchIndex.remove(itemId);
+                heritageItemPopularityRanking.remove(itemId);
+            });
 
             log.info("非遗作品删除成功: id={}, title={}", itemId, item.getTitle());
 
@@ -268,6 +356,11 @@ public class HeritageItemService {
             item.setPublishTime(LocalDateTime.now());
             // updateTime 由 MyBatis-Plus 自动填充，无需手动设置
             heritageItemMapper.updateById(item);
+            heritageItemDetailCache.invalidate(itemId);
+            TransactionUtils.afterCommit(() -> {
+                heritageSearchIndex.upsert(item);
+                heritageItemPopularityRanking.track(itemId);
+            });
 
             log.info("非遗作品发布成功: id={}, title={}", itemId, item.getTitle());
 
@@ -306,6 +399,11 @@ public class HeritageItemService {
             item.setStatus(HeritageItemStatus.OFFLINE.getCode());
             // updateTime 由 MyBatis-Plus 自动填充，无需手动设置
             heritageItemMapper.updateById(item);
+            heritageItemDetailCache.invalidate(itemId);
+            TransactionUtils.afterCommit(() -> {
+                heritageSearchIndex.remove(itemId);
+                heritageItemPopularityRanking.remove(itemId);
+            });
 
             log.info("非遗作品下架成功: id={}, title={}", itemId, item.getTitle());
 
@@ -323,8 +421,16 @@ public class HeritageItemService {
      * @return 作品列表
      */
     public List<HeritageItemDetailResponseDTO> getPopularItems(Integer limit) {
+        int size = limit != null ? limit : 10;
         try {
-            List<HeritageItem> items = heritageItemMapper.selectPopularItems(limit != null ? limit : 10);
+            if (heritageItemPopularityRanking.isReady()) {
+                List<String> topIds = heritageItemPopularityRanking.getTopIds(size);
+                if (!topIds.isEmpty()) {
+                    return loadPopularDetails(topIds);
+                }
+            }
+
+            List<HeritageItem> items = heritageItemMapper.selectPopularItems(size);
             List<HeritageItemDetailResponseDTO> result = items.stream()
                     .map(HeritageItemConvert::entityToDetailResponse)
                     .collect(Collectors.toList());
@@ -338,6 +444,24 @@ public class HeritageItemService {
         }
     }
 
+    /**
+     * 按热度排行加载作品详情（走详情缓存），跳过已删除或已下架的作品
+     */
+    private List<HeritageItemDetailResponseDTO> loadPopularDetails(List<String> itemIds) {
+        List<HeritageItemDetailResponseDTO> result = new ArrayList<>(itemIds.size());
+        for (String itemId : itemIds) {
+            try {
+                HeritageItemDetailResponseDTO detail = heritageItemDetailCache.get(itemId, this::loadHeritageItemDetail);
+                if (HeritageItemStatus.PUBLISHED.getCode().equals(detail.getStatus())) {
+                    result.add(detail);
+                }
+            } catch (BusinessException e) {
+                log.debug("热门作品已不存在: itemId={}", itemId);
+            }
+        }
+        return result;
+    }
+
     /**
      * 搜索作品
      * @param keyword 关键词
@@ -350,7 +474,14 @@ public class HeritageItemService {
                 return List.of();
             }
 
-            List<HeritageItem> items = heritageItemMapper.searchByKeyword(keyword, limit != null ? limit : 20);
+            int size = limit != null ? limit : 20;
+            List<HeritageItem> items;
+            if (useSearchIndex()) {
+                // 倒排索引返回按相关度排序的ID，再按主键批量取回
+                items = selectItemsInOrder(heritageSearchIndex.search(keyword, size));
+            } else {
+                items = heritageItemMapper.searchByKeyword(keyword, size);
+            }
             List<HeritageItemDetailResponseDTO> result = items.stream()
                     .map(HeritageItemConvert::entityToDetailResponse)
                     .collect(Collectors.toList());
@@ -364,6 +495,94 @@ public class HeritageItemService {
         }
     }
 
+    /**
+     * 生成游标：Base64(createTime|id)
+     */
+    private String encodeCursor(HeritageItem item) {
+        String raw = item.getCreateTime() + "|" + item.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，返回 [createTime, id]
+     */
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2 || !StringUtils.hasText(parts[1])) {
+                throw new BusinessException("无效的分页游标");
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 是否带有筛选条件
+     */
+    private boolean hasFilterConditions(HeritageItemListQueryDTO queryDTO) {
+        return StringUtils.hasText(queryDTO.getTitle())
+                || StringUtils.hasText(queryDTO.getCategory())
+                || StringUtils.hasText(queryDTO.getRegion())
+                || queryDTO.getStatus() != null
+                || StringUtils.hasText(queryDTO.getCreatorId())
+                || StringUtils.hasText(queryDTO.getStartDate())
+                || StringUtils.hasText(queryDTO.getEndDate());
+    }
+
+    /**
+     * 是否使用内存倒排索引检索（索引未就绪时回退到数据库查询）
+     */
+    private boolean useSearchIndex() {
+        return !"sql".equalsIgnoreCase(searchMode) && heritageSearchIndex.isReady();
+    }
+
+    /**
+     * 按给定ID顺序批量查询已发布作品
+     */
+    private List<HeritageItem> selectItemsInOrder(List<String> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        Map<String, HeritageItem> itemMap = heritageItemMapper.selectBatchIds(itemIds).stream()
+                .collect(Collectors.toMap(HeritageItem::getId, Function.identity()));
+        return itemIds.stream()
+                .map(itemMap::get)
+                .filter(Objects::nonNull)
+                .filter(HeritageItem::isPublished)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取作品详情缓存统计信息
+     * @return 命中、未命中、淘汰等统计
+     */
+    public Map<String, Object> getDetailCacheStats() {
+        return heritageItemDetailCache.stats();
+    }
+
+    /**
+     * 从数据库加载并组装作品详情
+     */
+    private HeritageItemDetailResponseDTO loadHeritageItemDetail(String itemId) {
+        HeritageItem item = heritageItemMapper.selectById(itemId);
+        if (item == null) {
+            throw new BusinessException("作品不存在");
+        }
+
+        HeritageItemDetailResponseDTO response = HeritageItemConvert.entityToDetailResponse(item);
+
+        // 填充关联信息
+        fillItemInfo(response);
+
+        return response;
+    }
+
     /**
      * 填充作品关联信息
      */
@@ -2,9 +2,13 @@ package org.example.springboot.service;
 
 import cn.hutool.core.util.IdUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.dto.command.OrderCheckoutCommandDTO;
+import org.example.springboot.dto.command.OrderCheckoutItemDTO;
 import org.example.springboot.dto.command.OrderCreateCommandDTO;
 import org.example.springboot.dto.response.OrderListResponseDTO;
 import org.example.springboot.dto.response.OrderResponseDTO;
@@ -12,21 +16,42 @@ import org.example.springboot.entity.ShopOrder;
 import org.example.springboot.entity.ShopOrderItem;
 import org.example.springboot.entity.ShopProduct;
 import org.example.springboot.entity.UserAddress;
+import org.example.springboot.enums.OrderEventType;
+import org.example.springboot.enums.OrderNoMatchMode;
 import org.example.springboot.enums.OrderStatus;
 import org.example.springboot.exception.BusinessException;
 import org.example.springboot.mapper.ShopOrderItemMapper;
 import org.example.springboot.mapper.ShopOrderMapper;
 import org.example.springboot.mapper.ShopProductMapper;
 import org.example.springboot.service.convert.OrderConvert;
+import org.example.springboot.service.event.OrderEvent;
+import org.example.springboot.service.event.OrderEventPublisher;
+import org.example.springboot.service.order.OrderArchiveService;
+import org.example.springboot.service.order.OrderNoGenerator;
+import org.example.springboot.service.order.OrderTimeoutService;
+import org.example.springboot.service.stock.HotStockService;
+import org.example.springboot.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -37,6 +62,13 @@ import java.util.stream.Collectors;
 @Service
 public class OrderService {
 
+    /**
+     * 订单列表顺序：创建时间倒序，相同时按ID倒序
+     */
+    private static final Comparator<ShopOrder> LIST_ORDER = Comparator
+            .comparing(ShopOrder::getCreateTime, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(ShopOrder::getId, Comparator.nullsLast(Comparator.<Long>reverseOrder()));
+
     @Resource
     private ShopOrderMapper shopOrderMapper;
 
@@ -49,37 +81,148 @@ public class OrderService {
     @Resource
     private UserAddressService userAddressService;
 
+    @Resource
+    private ShopProductService shopProductService;
+
+    @Resource
+    private HotStockService hotStockService;
+
+    @Resource
+    private OrderNoGenerator orderNoGenerator;
+
+    @Resource
+    private OrderTimeoutService orderTimeoutService;
+
+    @Resource
+    private OrderEventPublisher orderEventPublisher;
+
+    @Resource
+    private OrderArchiveService orderArchiveService;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
     /**
-     * 创建订单
+     * 按订单号查找时返回的最大匹配数
+     */
+    @Value("${shop.order.search-max-results:200}")
+    private int orderSearchMaxResults;
+
+    /**
+     * 下单事务（热卖库存预占在事务之外，售罄请求不占用数据库连接）
+     */
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 创建订单（单个商品）
      */
-    @Transactional(rollbackFor = Exception.class)
     public OrderResponseDTO createOrder(OrderCreateCommandDTO dto, Long userId) {
         log.info("创建订单，用户ID: {}, 商品ID: {}, 数量: {}", userId, dto.getProductId(), dto.getQuantity());
-        
-        // 1. 验证商品
-        ShopProduct product = shopProductMapper.selectById(dto.getProductId());
-        if (product == null) {
-            throw new BusinessException("商品不存在");
+        Map<String, Integer> quantities = new TreeMap<>();
+        quantities.put(dto.getProductId(), dto.getQuantity());
+        return placeOrder(quantities, dto.getAddressId(), dto.getRemark(), userId);
+    }
+
+    /**
+     * 购物车结算（多个商品生成一个订单）
+     */
+    public OrderResponseDTO checkout(OrderCheckoutCommandDTO dto, Long userId) {
+        log.info("购物车结算，用户ID: {}, 商品行数: {}", userId, dto.getItems().size());
+        // 同一商品出现多次时合并数量；按商品ID排序，批量扣减时加锁顺序一致
+        Map<String, Integer> quantities = new TreeMap<>();
+        for (OrderCheckoutItemDTO item : dto.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return placeOrder(quantities, dto.getAddressId(), dto.getRemark(), userId);
+    }
+
+    /**
+     * 下单入口（事务外）：热卖商品先在内存计数器预占库存，售罄时直接拒绝，不获取数据库连接、不开启事务；
+     * 预占成功后在事务中写入订单，事务回滚或未能开启时归还预占
+     * @param quantities 商品ID -> 购买数量（按商品ID排序）
+     */
+    private OrderResponseDTO placeOrder(Map<String, Integer> quantities, Long addressId, String remark, Long userId) {
+        // 待同步标记作用于整个订单，热卖商品只能单独下单
+        for (String productId : quantities.keySet()) {
+            if (hotStockService.isHot(productId) && quantities.size() > 1) {
+                throw new BusinessException("热卖商品请单独下单");
+            }
         }
-        if (!product.canPurchase()) {
-            throw new BusinessException("商品已下架或库存不足");
+        Map.Entry<String, Integer> entry = quantities.entrySet().iterator().next();
+        if (quantities.size() > 1 || !hotStockService.reserve(entry.getKey(), entry.getValue())) {
+            return transactionTemplate.execute(status -> doPlaceOrder(quantities, addressId, remark, userId, false));
         }
-        if (!product.checkStock(dto.getQuantity())) {
-            throw new BusinessException("商品库存不足");
+
+        AtomicBoolean started = new AtomicBoolean(false);
+        try {
+            return transactionTemplate.execute(status -> {
+                started.set(true);
+                TransactionUtils.afterRollback(() -> hotStockService.release(entry.getKey(), entry.getValue()));
+                return doPlaceOrder(quantities, addressId, remark, userId, true);
+            });
+        } catch (RuntimeException e) {
+            if (!started.get()) {
+                hotStockService.release(entry.getKey(), entry.getValue());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 下单公共流程（事务内）：一次查询加载全部商品，一条语句插入全部明细，一条语句扣减全部库存
+     * @param quantities 商品ID -> 购买数量（按商品ID排序）
+     * @param hotReserved 是否已在热卖库存计数器中预占
+     */
+    private OrderResponseDTO doPlaceOrder(Map<String, Integer> quantities, Long addressId, String remark, Long userId,
+                                          boolean hotReserved) {
+        // 1. 验证商品
+        Map<String, ShopProduct> products = shopProductMapper.selectBatchIds(quantities.keySet()).stream()
+                .collect(Collectors.toMap(ShopProduct::getId, p -> p));
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            ShopProduct product = products.get(entry.getKey());
+            if (product == null) {
+                throw new BusinessException("商品不存在");
+            }
+            if (!product.canPurchase()) {
+                throw new BusinessException("商品已下架或库存不足：" + product.getTitle());
+            }
+            if (!product.checkStock(entry.getValue())) {
+                throw new BusinessException("商品库存不足：" + product.getTitle());
+            }
         }
         
         // 2. 验证收货地址
-        UserAddress address = userAddressService.getAddressEntityById(dto.getAddressId());
+        UserAddress address = userAddressService.getAddressEntityById(addressId);
         if (!address.getUserId().equals(userId)) {
             throw new BusinessException("无权使用该收货地址");
         }
         
         // 3. 计算订单金额
-        BigDecimal totalAmount = product.getPrice().multiply(BigDecimal.valueOf(dto.getQuantity()));
+        List<ShopOrderItem> items = new ArrayList<>(quantities.size());
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            ShopProduct product = products.get(entry.getKey());
+            BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(entry.getValue()));
+            totalAmount = totalAmount.add(subtotal);
+            items.add(ShopOrderItem.builder()
+                    .productId(product.getId())
+                    .skuId(product.getId()) // 暂无SKU，使用商品ID
+                    .title(product.getTitle())
+                    .skuTitle(product.getSubtitle())
+                    .price(product.getPrice())
+                    .quantity(entry.getValue())
+                    .subtotal(subtotal)
+                    .build());
+        }
         BigDecimal payAmount = totalAmount; // 暂不考虑优惠
         
         // 4. 生成订单号
-        String orderNo = generateOrderNo(userId);
+        String orderNo = orderNoGenerator.nextOrderNo();
         
         // 5. 创建订单主表
         ShopOrder order = ShopOrder.builder()
@@ -89,35 +232,29 @@ public class OrderService {
                 .payAmount(payAmount)
                 .status(OrderStatus.PENDING.getCode())
                 .receiverAddressId(address.getId())
-                .remark(dto.getRemark())
+                .remark(remark)
+                .stockPending(hotReserved ? 1 : 0)
                 .build();
         shopOrderMapper.insert(order);
         
-        // 6. 创建订单明细
-        ShopOrderItem orderItem = ShopOrderItem.builder()
-                .orderId(order.getId())
-                .productId(product.getId())
-                .skuId(product.getId()) // 暂无SKU，使用商品ID
-                .title(product.getTitle())
-                .skuTitle(product.getSubtitle())
-                .price(product.getPrice())
-                .quantity(dto.getQuantity())
-                .subtotal(totalAmount)
-                .build();
-        shopOrderItemMapper.insert(orderItem);
+        // 6. 批量创建订单明细
+        items.forEach(item -> item.setOrderId(order.getId()));
+        shopOrderItemMapper.insertBatch(items);
         
-        // 7. 扣减库存
-        boolean stockReduced = product.reduceStock(dto.getQuantity());
-        if (!stockReduced) {
-            throw new BusinessException("库存扣减失败");
+        // 7. 扣减库存（条件SQL，放在事务最后执行以缩短行锁持有时间）；热卖商品提交后批量同步
+        if (hotReserved) {
+            TransactionUtils.afterCommit(() -> hotStockService.enqueue(order.getId()));
+        } else {
+            shopProductService.deductStocks(quantities);
         }
-        shopProductMapper.updateById(product);
         
-        log.info("订单创建成功，订单号: {}", orderNo);
+        // 8. 写入订单创建事件；提交后登记支付超时，到期未支付自动关闭
+        orderEventPublisher.publish(buildEvent(OrderEventType.CREATED, order, null, items));
+        TransactionUtils.afterCommit(() -> orderTimeoutService.register(order.getId(), order.getCreateTime()));
+        
+        log.info("订单创建成功，订单号: {}, 商品数: {}", orderNo, items.size());
         
-        // 8. 返回订单详情
-        List<ShopOrderItem> items = new ArrayList<>();
-        items.add(orderItem);
+        // 9. 返回订单详情
         return OrderConvert.toResponseDTO(order, address, items);
     }
 
@@ -127,8 +264,13 @@ public class OrderService {
     public OrderResponseDTO getOrderDetail(Long orderId, Long userId, boolean isAdmin) {
         log.info("获取订单详情，订单ID: {}, 用户ID: {}, 是否管理员: {}", orderId, userId, isAdmin);
         
-        // 查询订单
+        // 查询订单（在线表没有时查归档表）
         ShopOrder order = shopOrderMapper.selectById(orderId);
+        boolean archived = false;
+        if (order == null) {
+            order = orderArchiveService.selectOrderById(orderId);
+            archived = true;
+        }
         if (order == null) {
             throw new BusinessException("订单不存在");
         }
@@ -139,9 +281,15 @@ public class OrderService {
         }
         
         // 查询订单明细
-        LambdaQueryWrapper<ShopOrderItem> itemWrapper = new LambdaQueryWrapper<>();
-        itemWrapper.eq(ShopOrderItem::getOrderId, orderId);
-        List<ShopOrderItem> items = shopOrderItemMapper.selectList(itemWrapper);
+        List<ShopOrderItem> items;
+        if (archived) {
+            items = orderArchiveService.selectItemsMap(Collections.singletonList(orderId))
+                    .getOrDefault(orderId, Collections.emptyList());
+        } else {
+            LambdaQueryWrapper<ShopOrderItem> itemWrapper = new LambdaQueryWrapper<>();
+            itemWrapper.eq(ShopOrderItem::getOrderId, orderId);
+            items = shopOrderItemMapper.selectList(itemWrapper);
+        }
         
         // 查询收货地址
         UserAddress address = null;
@@ -162,69 +310,82 @@ public class OrderService {
         Page<ShopOrder> page = new Page<>(current, size);
         
         // 构建查询条件
-        LambdaQueryWrapper<ShopOrder> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(ShopOrder::getUserId, userId);
-        if (status != null) {
-            wrapper.eq(ShopOrder::getStatus, status);
-        }
-        wrapper.orderByDesc(ShopOrder::getCreateTime);
+        LambdaQueryWrapper<ShopOrder> wrapper = buildListWrapper(userId, status);
         
-        // 查询订单
+        // 查询订单（先查在线表，当前页落在归档订单范围时与归档订单归并）
         Page<ShopOrder> orderPage = shopOrderMapper.selectPage(page, wrapper);
-        
-        // 查询所有订单的明细
-        List<Long> orderIds = orderPage.getRecords().stream()
-                .map(ShopOrder::getId)
-                .collect(Collectors.toList());
-        
-        Map<Long, List<ShopOrderItem>> itemsMap = getOrderItemsMap(orderIds);
-        
-        // 转换为DTO
-        Page<OrderListResponseDTO> resultPage = new Page<>(orderPage.getCurrent(), orderPage.getSize(), orderPage.getTotal());
-        List<OrderListResponseDTO> records = orderPage.getRecords().stream()
-                .map(order -> OrderConvert.toListResponseDTO(order, itemsMap.get(order.getId())))
-                .collect(Collectors.toList());
-        resultPage.setRecords(records);
-        
-        return resultPage;
+        return toListPage(orderPage, userId, status);
     }
 
     /**
      * 分页查询订单列表（管理员）
      */
-    public Page<OrderListResponseDTO> getAdminOrderPage(Long current, Long size, Integer status, String orderNo) {
+    public Page<OrderListResponseDTO> getAdminOrderPage(Long current, Long size, Integer status, String orderNo,
+                                                        OrderNoMatchMode matchMode) {
         log.info("分页查询管理员订单，页码: {}, 大小: {}, 状态: {}, 订单号: {}", current, size, status, orderNo);
         
+        // 按订单号查找
+        if (orderNo != null && !orderNo.trim().isEmpty()) {
+            return searchAdminOrders(current, size, status, orderNo.trim(), matchMode);
+        }
+        
         // 构建分页对象
         Page<ShopOrder> page = new Page<>(current, size);
         
         // 构建查询条件
+        LambdaQueryWrapper<ShopOrder> wrapper = buildListWrapper(null, status);
+        
+        // 查询订单（先查在线表，当前页落在归档订单范围时与归档订单归并）
+        Page<ShopOrder> orderPage = shopOrderMapper.selectPage(page, wrapper);
+        return toListPage(orderPage, null, status);
+    }
+
+    /**
+     * 按订单号查找订单（管理员）
+     * 精确、前缀匹配走订单号索引，尾号匹配走倒序订单号函数索引，不使用前导通配符；
+     * 匹配结果数有上限，不执行总数统计，分页在内存中完成
+     */
+    private Page<OrderListResponseDTO> searchAdminOrders(Long current, Long size, Integer status, String orderNo,
+                                                         OrderNoMatchMode matchMode) {
+        OrderNoMatchMode mode = OrderNoMatchMode.resolve(matchMode, orderNo);
+        
         LambdaQueryWrapper<ShopOrder> wrapper = new LambdaQueryWrapper<>();
         if (status != null) {
             wrapper.eq(ShopOrder::getStatus, status);
         }
-        if (orderNo != null && !orderNo.trim().isEmpty()) {
-            wrapper.like(ShopOrder::getOrderNo, orderNo);
+        switch (mode) {
+            case EXACT:
+                wrapper.eq(ShopOrder::getOrderNo, orderNo);
+                break;
+            case PREFIX:
+                wrapper.likeRight(ShopOrder::getOrderNo, orderNo);
+                break;
+            default:
+                // 尾号匹配转换为倒序订单号上的前缀匹配（不依赖排序规则中字符的先后）
+                wrapper.apply("REVERSE(order_no) LIKE CONCAT({0}, '%')", OrderNoMatchMode.reverseForSuffix(orderNo));
+                break;
+        }
+        wrapper.orderByDesc(ShopOrder::getCreateTime).orderByDesc(ShopOrder::getId)
+                .last("LIMIT " + orderSearchMaxResults);
+        List<ShopOrder> hotOrders = shopOrderMapper.selectList(wrapper);
+        
+        List<ShopOrder> archivedOrders = Collections.emptyList();
+        if (hotOrders.size() < orderSearchMaxResults && orderArchiveService.mayContain(status)) {
+            archivedOrders = orderArchiveService.searchOrders(status, mode, orderNo,
+                    orderSearchMaxResults - hotOrders.size());
         }
-        wrapper.orderByDesc(ShopOrder::getCreateTime);
-        
-        // 查询订单
-        Page<ShopOrder> orderPage = shopOrderMapper.selectPage(page, wrapper);
-        
-        // 查询所有订单的明细
-        List<Long> orderIds = orderPage.getRecords().stream()
-                .map(ShopOrder::getId)
-                .collect(Collectors.toList());
-        
-        Map<Long, List<ShopOrderItem>> itemsMap = getOrderItemsMap(orderIds);
-        
-        // 转换为DTO
-        Page<OrderListResponseDTO> resultPage = new Page<>(orderPage.getCurrent(), orderPage.getSize(), orderPage.getTotal());
-        List<OrderListResponseDTO> records = orderPage.getRecords().stream()
-                .map(order -> OrderConvert.toListResponseDTO(order, itemsMap.get(order.getId())))
-                .collect(Collectors.toList());
-        resultPage.setRecords(records);
         
+        // 内存分页：在线订单与归档订单按创建时间倒序归并
+        List<ShopOrder> matchedOrders = new ArrayList<>(hotOrders.size() + archivedOrders.size());
+        matchedOrders.addAll(hotOrders);
+        matchedOrders.addAll(archivedOrders);
+        matchedOrders.sort(LIST_ORDER);
+        int matched = matchedOrders.size();
+        int from = (int) Math.min((current - 1) * size, matched);
+        int to = (int) Math.min(from + size, matched);
+        
+        Page<OrderListResponseDTO> resultPage = new Page<>(current, size, matched);
+        resultPage.setRecords(toListRecords(matchedOrders.subList(from, to), archivedIds(archivedOrders)));
         return resultPage;
     }
 
@@ -251,11 +412,21 @@ public class OrderService {
             throw new BusinessException("订单状态不允许支付");
         }
         
-        // 更新订单状态
+        // 更新订单状态（以仍为待支付为条件，与超时关闭互斥）
         order.setStatus(OrderStatus.PAID.getCode());
         order.setPayType(payType);
         order.setPayTime(LocalDateTime.now());
-        shopOrderMapper.updateById(order);
+        if (!updateStatusIfUnchanged(order, OrderStatus.PENDING.getCode())) {
+            throw new BusinessException("订单状态已变更，请刷新后重试");
+        }
+        TransactionUtils.afterCommit(() -> orderTimeoutService.cancel(orderId));
+        
+        // 写入支付事件（携带本单商品，供推荐模型等下游更新）
+        LambdaQueryWrapper<ShopOrderItem> itemWrapper = new LambdaQueryWrapper<>();
+        itemWrapper.select(ShopOrderItem::getProductId, ShopOrderItem::getQuantity)
+                .eq(ShopOrderItem::getOrderId, orderId);
+        List<ShopOrderItem> items = shopOrderItemMapper.selectList(itemWrapper);
+        orderEventPublisher.publish(buildEvent(OrderEventType.PAID, order, OrderStatus.PENDING.getCode(), items));
         
         log.info("订单支付成功，订单号: {}", order.getOrderNo());
     }
@@ -283,9 +454,14 @@ public class OrderService {
             throw new BusinessException("订单状态不允许取消");
         }
         
-        // 更新订单状态
+        // 更新订单状态（以读取时的状态为条件，避免与支付、超时关闭并发时重复恢复库存）
+        Integer expectedStatus = order.getStatus();
         order.setStatus(OrderStatus.CLOSED.getCode());
-        shopOrderMapper.updateById(order);
+        if (!updateStatusIfUnchanged(order, expectedStatus)) {
+            throw new BusinessException("订单状态已变更，请刷新后重试");
+        }
+        TransactionUtils.afterCommit(() -> orderTimeoutService.cancel(orderId));
+        orderEventPublisher.publish(buildEvent(OrderEventType.CLOSED, order, expectedStatus, null));
         
         // 恢复库存
         restoreOrderStock(orderId);
@@ -293,6 +469,71 @@ public class OrderService {
         log.info("订单取消成功，订单号: {}", order.getOrderNo());
     }
 
+    /**
+     * 批量取消订单（管理员）
+     * 锁定全部可取消的订单后一次性关闭，所有订单的库存按商品汇总后一条语句回补
+     * @param orderIds 订单ID
+     * @return 实际取消的订单ID（不存在或状态不允许取消的订单被跳过）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<Long> batchCancelOrders(List<Long> orderIds) {
+        log.info("批量取消订单，订单数: {}", orderIds.size());
+        
+        // 按ID顺序锁定待支付、已支付的订单
+        List<ShopOrder> orders = shopOrderMapper.selectByStatusForUpdate(new TreeSet<>(orderIds),
+                Arrays.asList(OrderStatus.PENDING.getCode(), OrderStatus.PAID.getCode()));
+        if (orders.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> cancelledIds = orders.stream().map(ShopOrder::getId).collect(Collectors.toList());
+        Set<Long> stockPendingIds = orders.stream()
+                .filter(order -> Integer.valueOf(1).equals(order.getStockPending()))
+                .map(ShopOrder::getId)
+                .collect(Collectors.toSet());
+        
+        // 更新订单状态
+        shopOrderMapper.updateStatusBatch(cancelledIds, OrderStatus.CLOSED.getCode());
+        if (!stockPendingIds.isEmpty()) {
+            shopOrderMapper.clearStockPending(stockPendingIds);
+        }
+        TransactionUtils.afterCommit(() -> cancelledIds.forEach(orderTimeoutService::cancel));
+        List<OrderEvent> events = new ArrayList<>(orders.size());
+        for (ShopOrder order : orders) {
+            Integer previousStatus = order.getStatus();
+            order.setStatus(OrderStatus.CLOSED.getCode());
+            events.add(buildEvent(OrderEventType.CLOSED, order, previousStatus, null));
+        }
+        orderEventPublisher.publishAll(events);
+        
+        // 恢复库存
+        restoreOrdersStock(cancelledIds, stockPendingIds);
+        
+        log.info("批量取消订单完成，请求数: {}, 实际取消: {}", orderIds.size(), cancelledIds.size());
+        return cancelledIds;
+    }
+
+    /**
+     * 关闭超时未支付的订单并恢复库存（由超时关闭任务调用）
+     * 仅当订单仍为待支付时关闭，已支付或已取消的订单不受影响
+     * @param orderId 订单ID
+     * @return 是否关闭了订单
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public boolean closeExpiredOrder(Long orderId) {
+        ShopOrder update = ShopOrder.builder()
+                .id(orderId)
+                .status(OrderStatus.CLOSED.getCode())
+                .build();
+        if (!updateStatusIfUnchanged(update, OrderStatus.PENDING.getCode())) {
+            return false;
+        }
+        ShopOrder order = shopOrderMapper.selectById(orderId);
+        orderEventPublisher.publish(buildEvent(OrderEventType.CLOSED, order, OrderStatus.PENDING.getCode(), null));
+        restoreOrderStock(orderId);
+        log.info("订单支付超时已自动关闭，订单ID: {}", orderId);
+        return true;
+    }
+
     /**
      * 发货
      */
@@ -314,7 +555,10 @@ public class OrderService {
         // 更新订单状态
         order.setStatus(OrderStatus.SHIPPED.getCode());
         order.setLogisticsNo(logisticsNo);
-        shopOrderMapper.updateById(order);
+        if (!updateStatusIfUnchanged(order, OrderStatus.PAID.getCode())) {
+            throw new BusinessException("订单状态已变更，请刷新后重试");
+        }
+        orderEventPublisher.publish(buildEvent(OrderEventType.SHIPPED, order, OrderStatus.PAID.getCode(), null));
         
         log.info("订单发货成功，订单号: {}", order.getOrderNo());
     }
@@ -344,20 +588,167 @@ public class OrderService {
         
         // 更新订单状态
         order.setStatus(OrderStatus.COMPLETED.getCode());
-        shopOrderMapper.updateById(order);
+        if (!updateStatusIfUnchanged(order, OrderStatus.SHIPPED.getCode())) {
+            throw new BusinessException("订单状态已变更，请刷新后重试");
+        }
+        orderEventPublisher.publish(buildEvent(OrderEventType.COMPLETED, order, OrderStatus.SHIPPED.getCode(), null));
         
         log.info("确认收货成功，订单号: {}", order.getOrderNo());
     }
 
     /**
-     * 生成订单号
+     * 构建订单事件
+     * @param items 订单商品，不需要携带时传null
+     */
+    private OrderEvent buildEvent(OrderEventType type, ShopOrder order, Integer previousStatus, List<ShopOrderItem> items) {
+        List<OrderEvent.Item> eventItems = items == null ? null : items.stream()
+                .map(item -> new OrderEvent.Item(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+        return OrderEvent.builder()
+                .type(type)
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .orderNo(order.getOrderNo())
+                .status(order.getStatus())
+                .previousStatus(previousStatus)
+                .payAmount(order.getPayAmount())
+                .orderCreateTime(order.getCreateTime())
+                .items(eventItems)
+                .build();
+    }
+
+    /**
+     * 以订单当前状态为条件更新订单
+     * @param order 待更新字段（非空字段会被更新）
+     * @param expectedStatus 期望的当前状态
+     * @return 是否更新成功
+     */
+    private boolean updateStatusIfUnchanged(ShopOrder order, Integer expectedStatus) {
+        LambdaUpdateWrapper<ShopOrder> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.eq(ShopOrder::getId, order.getId()).eq(ShopOrder::getStatus, expectedStatus);
+        return shopOrderMapper.update(order, wrapper) > 0;
+    }
+
+    /**
+     * 订单列表查询条件：按创建时间倒序，相同时按ID倒序（与归档表查询的排序一致）
+     * @param userId 用户ID，为null时不限
+     * @param status 订单状态，为null时不限
+     */
+    private LambdaQueryWrapper<ShopOrder> buildListWrapper(Long userId, Integer status) {
+        LambdaQueryWrapper<ShopOrder> wrapper = new LambdaQueryWrapper<>();
+        if (userId != null) {
+            wrapper.eq(ShopOrder::getUserId, userId);
+        }
+        if (status != null) {
+            wrapper.eq(ShopOrder::getStatus, status);
+        }
+        wrapper.orderByDesc(ShopOrder::getCreateTime).orderByDesc(ShopOrder::getId);
+        return wrapper;
+    }
+
+    /**
+     * 合并在线订单与归档订单并转换为列表DTO，整体按创建时间倒序
+     * 1. 归档订单的创建时间都不晚于归档表中最晚的创建时间（分界时间），在线表中晚于分界时间的订单排在最前，
+     *    当前页只含这些订单时直接使用在线表分页结果，不读取归档表
+     * 2. 在线表中不晚于分界时间的订单（超过归档期限仍未结束的订单，数量很少）与归档订单按创建时间归并
+     * @param orderPage 在线表分页结果
+     */
+    private Page<OrderListResponseDTO> toListPage(Page<ShopOrder> orderPage, Long userId, Integer status) {
+        List<ShopOrder> hotOrders = orderPage.getRecords();
+        long archiveTotal = orderArchiveService.mayContain(status) ? orderArchiveService.countOrders(userId, status) : 0;
+        LocalDateTime boundary = archiveTotal > 0 ? orderArchiveService.latestCreateTime(userId, status) : null;
+        if (boundary == null) {
+            Page<OrderListResponseDTO> resultPage = new Page<>(orderPage.getCurrent(), orderPage.getSize(),
+                    orderPage.getTotal());
+            resultPage.setRecords(toListRecords(hotOrders, Collections.emptySet()));
+            return resultPage;
+        }
+        
+        long offset = (orderPage.getCurrent() - 1) * orderPage.getSize();
+        List<ShopOrder> orders = new ArrayList<>((int) orderPage.getSize());
+        for (ShopOrder order : hotOrders) {
+            if (order.getCreateTime().isAfter(boundary)) {
+                orders.add(order);
+            }
+        }
+        Set<Long> archivedIds = new HashSet<>();
+        if (orders.size() < orderPage.getSize()) {
+            // 当前页的其余位置落在归并部分：计算在归并部分中的起始位置
+            long newerCount;
+            if (orders.isEmpty()) {
+                LambdaQueryWrapper<ShopOrder> countWrapper = buildListWrapper(userId, status);
+                countWrapper.gt(ShopOrder::getCreateTime, boundary);
+                newerCount = shopOrderMapper.selectCount(countWrapper);
+            } else {
+                newerCount = offset + orders.size();
+            }
+            orders.addAll(mergeWithArchive(userId, status, boundary, Math.max(0, offset - newerCount),
+                    (int) (orderPage.getSize() - orders.size()), archivedIds));
+        }
+        
+        Page<OrderListResponseDTO> resultPage = new Page<>(orderPage.getCurrent(), orderPage.getSize(),
+                orderPage.getTotal() + archiveTotal);
+        resultPage.setRecords(toListRecords(orders, archivedIds));
+        return resultPage;
+    }
+
+    /**
+     * 在线表中不晚于分界时间的订单与归档订单归并后，取位置在 [offset, offset + size) 的订单
+     * 1. 归并结果的前 offset + size 条最多包含在线表中的前 offset + size 条
+     * 2. 取到h条在线订单时，归并结果的前offset条中至少有 offset - h 条归档订单，即归档表的前 offset - h 条，
+     *    归档表从该位置开始读取；排在这之前的在线订单位置都小于offset，不会落入当前页
+     * @param archivedIds 输出：结果中归档订单的ID
      */
-    private String generateOrderNo(Long userId) {
-        // 格式：时间戳(yyyyMMddHHmmss) + 用户ID后4位 + 4位随机数
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String userIdSuffix = String.format("%04d", userId % 10000);
-        String randomSuffix = String.format("%04d", (int) (Math.random() * 10000));
-        return timestamp + userIdSuffix + randomSuffix;
+    private List<ShopOrder> mergeWithArchive(Long userId, Integer status, LocalDateTime boundary, long offset, int size,
+                                             Set<Long> archivedIds) {
+        long window = offset + size;
+        LambdaQueryWrapper<ShopOrder> wrapper = buildListWrapper(userId, status);
+        wrapper.le(ShopOrder::getCreateTime, boundary).last("LIMIT " + window);
+        List<ShopOrder> olderHot = shopOrderMapper.selectList(wrapper);
+        long archiveOffset = Math.max(0, offset - olderHot.size());
+        List<ShopOrder> archived = orderArchiveService.selectOrders(userId, status, archiveOffset, window - archiveOffset);
+        
+        List<ShopOrder> result = new ArrayList<>(size);
+        long position = archiveOffset;
+        int i = 0;
+        int j = 0;
+        while (position < window && (i < olderHot.size() || j < archived.size())) {
+            boolean takeHot = j == archived.size()
+                    || (i < olderHot.size() && LIST_ORDER.compare(olderHot.get(i), archived.get(j)) <= 0);
+            ShopOrder order = takeHot ? olderHot.get(i++) : archived.get(j++);
+            if (position >= offset) {
+                result.add(order);
+                if (!takeHot) {
+                    archivedIds.add(order.getId());
+                }
+            }
+            position++;
+        }
+        return result;
+    }
+
+    /**
+     * 查询订单明细并转换为列表DTO，保持传入顺序
+     * @param archivedIds 其中归档订单的ID（明细从归档表读取）
+     */
+    private List<OrderListResponseDTO> toListRecords(List<ShopOrder> orders, Set<Long> archivedIds) {
+        List<Long> hotIds = new ArrayList<>(orders.size());
+        List<Long> pageArchivedIds = new ArrayList<>();
+        for (ShopOrder order : orders) {
+            (archivedIds.contains(order.getId()) ? pageArchivedIds : hotIds).add(order.getId());
+        }
+        Map<Long, List<ShopOrderItem>> itemsMap = new HashMap<>(getOrderItemsMap(hotIds));
+        itemsMap.putAll(orderArchiveService.selectItemsMap(pageArchivedIds));
+        
+        List<OrderListResponseDTO> records = new ArrayList<>(orders.size());
+        for (ShopOrder order : orders) {
+            records.add(OrderConvert.toListResponseDTO(order, itemsMap.get(order.getId())));
+        }
+        return records;
+    }
+
+    private static Set<Long> archivedIds(List<ShopOrder> archivedOrders) {
+        return archivedOrders.stream().map(ShopOrder::getId).collect(Collectors.toSet());
     }
 
     /**
@@ -379,19 +770,37 @@ public class OrderService {
      * 恢复订单库存
      */
     private void restoreOrderStock(Long orderId) {
-        // 查询订单明细
+        // 热卖订单的预占尚未同步到商品表时，只清除待同步标记，商品表无需回补
+        boolean stockPending = shopOrderMapper.clearStockPending(Collections.singletonList(orderId)) > 0;
+        restoreOrdersStock(Collections.singletonList(orderId),
+                stockPending ? Collections.singleton(orderId) : Collections.emptySet());
+    }
+
+    /**
+     * 恢复多个订单的库存：一次查询全部明细，按商品汇总后一条语句回补
+     * @param orderIds 订单ID
+     * @param stockPendingOrderIds 其中库存尚未同步到商品表的热卖订单（已清除标记），只归还内存计数器
+     */
+    private void restoreOrdersStock(Collection<Long> orderIds, Set<Long> stockPendingOrderIds) {
         LambdaQueryWrapper<ShopOrderItem> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(ShopOrderItem::getOrderId, orderId);
+        wrapper.select(ShopOrderItem::getOrderId, ShopOrderItem::getProductId, ShopOrderItem::getQuantity)
+                .in(ShopOrderItem::getOrderId, orderIds);
         List<ShopOrderItem> items = shopOrderItemMapper.selectList(wrapper);
         
-        // 恢复库存
+        // 按商品ID排序汇总，与下单扣减保持一致的加锁顺序
+        Map<String, Integer> restored = new TreeMap<>();
+        Map<String, Integer> hotReleased = new TreeMap<>();
         for (ShopOrderItem item : items) {
-            ShopProduct product = shopProductMapper.selectById(item.getProductId());
-            if (product != null) {
-                product.addStock(item.getQuantity());
-                shopProductMapper.updateById(product);
+            if (!stockPendingOrderIds.contains(item.getOrderId())) {
+                restored.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+            if (hotStockService.isHot(item.getProductId())) {
+                hotReleased.merge(item.getProductId(), item.getQuantity(), Integer::sum);
             }
         }
+        shopProductService.restoreStocks(restored);
+        if (!hotReleased.isEmpty()) {
+            TransactionUtils.afterCommit(() -> hotReleased.forEach(hotStockService::release));
+        }
     }
 }
-
@@ -3,12 +3,11 @@ package org.example.springboot.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.example.springboot.entity.ShopOrder;
-import org.example.springboot.entity.ShopOrderItem;
 import org.example.springboot.entity.ShopProduct;
-import org.example.springboot.mapper.ShopOrderItemMapper;
-import org.example.springboot.mapper.ShopOrderMapper;
 import org.example.springboot.mapper.ShopProductMapper;
+import org.example.springboot.service.cache.UserRecommendationCache;
+import org.example.springboot.service.recommend.ProductCooccurrenceModel;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -23,63 +22,63 @@ import java.util.stream.Collectors;
 public class ProductRecommendService {
 
     @Resource
-    private ShopOrderMapper shopOrderMapper;
+    private ShopProductMapper shopProductMapper;
+
+    /**
+     * 未登录用户在个性化推荐缓存中使用的键
+     */
+    private static final Long ANONYMOUS_USER_ID = 0L;
 
     @Resource
-    private ShopOrderItemMapper shopOrderItemMapper;
+    private ProductCooccurrenceModel productCooccurrenceModel;
 
     @Resource
-    private ShopProductMapper shopProductMapper;
+    private UserRecommendationCache userRecommendationCache;
+
+    /**
+     * 个性化推荐每个用户缓存的候选商品数量
+     */
+    @Value("${shop.recommend.user-candidate-size:50}")
+    private int userCandidateSize;
+
+    /**
+     * 可用性过滤时每轮候选数量相对推荐数量的倍数
+     */
+    @Value("${shop.recommend.availability-over-fetch:3}")
+    private int availabilityOverFetch;
 
     /**
      * 获取商品推荐列表（基于物品的协同过滤）
+     * 相似商品取自内存中的共现模型，不再逐请求扫描订单表
      * @param productId 当前商品ID
      * @param limit 推荐数量
      * @return 推荐商品ID列表
      */
     public List<String> getRecommendedProducts(String productId, int limit) {
-        log.info("开始计算商品推荐，商品ID: {}, 推荐数量: {}", productId, limit);
+        log.debug("获取商品推荐，商品ID: {}, 推荐数量: {}", productId, limit);
 
         try {
-            // 1. 构建用户-商品购买矩阵
-            Map<Long, Set<String>> userProductMatrix = buildUserProductMatrix();
-            
-            if (userProductMatrix.isEmpty()) {
-                log.warn("用户购买数据为空，使用fallback推荐策略");
+            if (!productCooccurrenceModel.isReady()) {
+                log.warn("商品共现模型尚未就绪，使用fallback推荐策略");
                 return getFallbackRecommendations(productId, limit);
             }
 
-            // 2. 计算商品相似度
-            Map<String, Double> similarityScores = calculateItemSimilarity(productId, userProductMatrix);
-            
-            if (similarityScores.isEmpty()) {
-                log.warn("未找到相似商品，使用fallback推荐策略");
+            // 1. 取预计算的相似商品（多取一些，过滤不可用商品后仍能凑够数量）
+            List<String> similarProductIds = productCooccurrenceModel.getSimilarProducts(productId, Integer.MAX_VALUE);
+            if (similarProductIds.isEmpty()) {
+                log.debug("未找到相似商品，使用fallback推荐策略");
                 return getFallbackRecommendations(productId, limit);
             }
 
-            // 3. 按相似度排序并返回Top N
-            List<String> recommendedProductIds = similarityScores.entrySet().stream()
-                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                    .limit(limit)
-                    .map(Map.Entry::getKey)
-                    .filter(id -> isProductAvailable(id)) // 过滤掉不可用的商品
-                    .collect(Collectors.toList());
+            // 2. 批量过滤掉不可用的商品
+            List<String> recommendedProductIds = filterAvailable(similarProductIds, limit);
 
-            // 4. 如果推荐数量不足，使用fallback策略补充
+            // 3. 如果推荐数量不足，使用fallback策略补充
             if (recommendedProductIds.size() < limit) {
-                log.info("推荐数量不足，使用fallback策略补充");
-                List<String> fallbackIds = getFallbackRecommendations(productId, limit - recommendedProductIds.size());
-                for (String fallbackId : fallbackIds) {
-                    if (!recommendedProductIds.contains(fallbackId)) {
-                        recommendedProductIds.add(fallbackId);
-                        if (recommendedProductIds.size() >= limit) {
-                            break;
-                        }
-                    }
-                }
+                log.debug("推荐数量不足，使用fallback策略补充");
+                fillWithFallback(recommendedProductIds, productId, limit);
             }
 
-            log.info("商品推荐计算完成，推荐数量: {}", recommendedProductIds.size());
             return recommendedProductIds;
             
         } catch (Exception e) {
@@ -89,119 +88,145 @@ public class ProductRecommendService {
     }
 
     /**
-     * 构建用户-商品购买矩阵
-     * 返回 Map<用户ID, Set<商品ID>>
+     * 获取用户的个性化推荐（"猜你喜欢"）
+     * 按用户购买过的每个商品的相似商品累加相似度打分，结果按用户缓存，不逐请求查询订单表
+     * @param userId 用户ID，未登录时为null
+     * @param limit 推荐数量
+     * @return 推荐商品ID列表
      */
-    private Map<Long, Set<String>> buildUserProductMatrix() {
-        // 查询所有已支付的订单
-        LambdaQueryWrapper<ShopOrder> orderWrapper = new LambdaQueryWrapper<>();
-        orderWrapper.in(ShopOrder::getStatus, Arrays.asList(1, 2, 3)); // 已支付、已发货、已完成
-        List<ShopOrder> orders = shopOrderMapper.selectList(orderWrapper);
-
-        if (orders.isEmpty()) {
-            return Collections.emptyMap();
-        }
+    public List<String> getUserRecommendations(Long userId, int limit) {
+        try {
+            Long cacheKey = userId != null ? userId : ANONYMOUS_USER_ID;
+            List<String> candidates = userRecommendationCache.get(cacheKey, this::computeUserCandidates);
 
-        // 获取所有订单的商品明细
-        List<Long> orderIds = orders.stream().map(ShopOrder::getId).collect(Collectors.toList());
-        LambdaQueryWrapper<ShopOrderItem> itemWrapper = new LambdaQueryWrapper<>();
-        itemWrapper.in(ShopOrderItem::getOrderId, orderIds);
-        List<ShopOrderItem> orderItems = shopOrderItemMapper.selectList(itemWrapper);
-
-        // 构建用户-商品矩阵
-        Map<Long, Set<String>> matrix = new HashMap<>();
-        for (ShopOrder order : orders) {
-            Long userId = order.getUserId();
-            matrix.putIfAbsent(userId, new HashSet<>());
-            
-            // 找到该订单的所有商品
-            for (ShopOrderItem item : orderItems) {
-                if (item.getOrderId().equals(order.getId())) {
-                    matrix.get(userId).add(item.getProductId());
-                }
+            // 批量过滤掉不可用的商品，数量不足时使用fallback策略补充
+            List<String> recommendedProductIds = filterAvailable(candidates, limit);
+            if (recommendedProductIds.size() < limit) {
+                fillWithFallback(recommendedProductIds, null, limit);
             }
-        }
+            return recommendedProductIds;
 
-        log.info("构建用户-商品矩阵完成，用户数: {}", matrix.size());
-        return matrix;
+        } catch (Exception e) {
+            log.error("计算个性化推荐失败，用户ID: {}", userId, e);
+            return getFallbackRecommendations(null, limit);
+        }
     }
 
     /**
-     * 计算商品相似度（基于余弦相似度）
-     * @param targetProductId 目标商品ID
-     * @param userProductMatrix 用户-商品购买矩阵
-     * @return Map<商品ID, 相似度分数>
+     * 记录用户购买（订单支付成功后调用），更新推荐模型并使该用户的个性化推荐失效
+     * @param userId 用户ID
+     * @param productIds 订单中的商品ID
      */
-    private Map<String, Double> calculateItemSimilarity(String targetProductId, Map<Long, Set<String>> userProductMatrix) {
-        Map<String, Double> similarityScores = new HashMap<>();
+    public void recordPurchase(Long userId, List<String> productIds) {
+        productCooccurrenceModel.recordPurchase(userId, productIds);
+        userRecommendationCache.invalidate(userId);
+    }
 
-        // 找出购买过目标商品的用户集合
-        Set<Long> targetProductUsers = userProductMatrix.entrySet().stream()
-                .filter(entry -> entry.getValue().contains(targetProductId))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+    /**
+     * 获取推荐模型统计信息（快照构建耗时、商品对数量、内存占用等）
+     */
+    public Map<String, Object> getModelStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(productCooccurrenceModel.stats());
+        stats.put("userCache", userRecommendationCache.stats());
+        return stats;
+    }
 
-        if (targetProductUsers.isEmpty()) {
-            log.warn("没有用户购买过目标商品: {}", targetProductId);
-            return similarityScores;
+    /**
+     * 计算用户的推荐候选：用户购买记录视为稀疏向量，与商品相似度稀疏向量逐个累加
+     * 没有购买记录的用户（冷启动）使用最新上架商品
+     */
+    private List<String> computeUserCandidates(Long userId) {
+        List<String> purchased = ANONYMOUS_USER_ID.equals(userId)
+                ? Collections.emptyList() : productCooccurrenceModel.getUserProducts(userId);
+        if (purchased.isEmpty() || !productCooccurrenceModel.isReady()) {
+            return getFallbackRecommendations(null, userCandidateSize);
         }
 
-        // 统计所有候选商品及其被购买的用户集合
-        Map<String, Set<Long>> candidateProductUsers = new HashMap<>();
-        for (Long userId : targetProductUsers) {
-            Set<String> userProducts = userProductMatrix.get(userId);
-            for (String productId : userProducts) {
-                if (!productId.equals(targetProductId)) {
-                    candidateProductUsers.putIfAbsent(productId, new HashSet<>());
-                    candidateProductUsers.get(productId).add(userId);
+        Set<String> owned = new HashSet<>(purchased);
+        Map<String, Double> scores = new HashMap<>();
+        for (String productId : purchased) {
+            for (Map.Entry<String, Float> entry : productCooccurrenceModel.getSimilarityScores(productId).entrySet()) {
+                if (!owned.contains(entry.getKey())) {
+                    scores.merge(entry.getKey(), entry.getValue().doubleValue(), Double::sum);
                 }
             }
         }
+        if (scores.isEmpty()) {
+            return getFallbackRecommendations(null, userCandidateSize);
+        }
 
-        // 计算余弦相似度
-        for (Map.Entry<String, Set<Long>> entry : candidateProductUsers.entrySet()) {
-            String candidateProductId = entry.getKey();
-            Set<Long> candidateUsers = entry.getValue();
-
-            // 计算交集（同时购买两个商品的用户数）
-            Set<Long> intersection = new HashSet<>(targetProductUsers);
-            intersection.retainAll(candidateUsers);
-            int commonUsers = intersection.size();
-
-            // 余弦相似度公式: cos(θ) = (A·B) / (|A| × |B|)
-            // A·B = 同时购买两个商品的用户数
-            // |A| = 购买商品A的用户数
-            // |B| = 购买商品B的用户数
-            double similarity = commonUsers / (Math.sqrt(targetProductUsers.size()) * Math.sqrt(candidateUsers.size()));
-            
-            similarityScores.put(candidateProductId, similarity);
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(userCandidateSize)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 按顺序过滤出可用（上架且有库存）的候选商品
+     * 每轮按 limit × 超取倍数 取一批候选，用一次IN查询判断可用性，通常一轮即可凑满
+     * @param candidates 按优先级排列的候选商品ID
+     * @param limit 需要的数量
+     * @return 可用商品ID，保持候选顺序
+     */
+    private List<String> filterAvailable(List<String> candidates, int limit) {
+        List<String> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
         }
+        int batchSize = Math.max(limit * availabilityOverFetch, limit);
+        for (int from = 0; from < candidates.size() && result.size() < limit; from += batchSize) {
+            List<String> batch = candidates.subList(from, Math.min(from + batchSize, candidates.size()));
 
-        log.info("计算商品相似度完成，候选商品数: {}", similarityScores.size());
-        return similarityScores;
+            LambdaQueryWrapper<ShopProduct> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(ShopProduct::getId)
+                    .in(ShopProduct::getId, batch)
+                    .eq(ShopProduct::getStatus, 1) // 上架状态
+                    .gt(ShopProduct::getStock, 0); // 有库存
+            Set<String> availableIds = shopProductMapper.selectList(wrapper).stream()
+                    .map(ShopProduct::getId)
+                    .collect(Collectors.toSet());
+
+            for (String id : batch) {
+                if (availableIds.contains(id)) {
+                    result.add(id);
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
     }
 
     /**
-     * 检查商品是否可用（上架且有库存）
+     * 使用fallback推荐补足数量（多取一份，抵消与已有结果重复的商品）
      */
-    private boolean isProductAvailable(String productId) {
-        ShopProduct product = shopProductMapper.selectById(productId);
-        return product != null && product.getStatus() == 1 && product.getStock() > 0;
+    private void fillWithFallback(List<String> recommendedProductIds, String productId, int limit) {
+        Set<String> existing = new HashSet<>(recommendedProductIds);
+        for (String fallbackId : getFallbackRecommendations(productId, limit)) {
+            if (existing.add(fallbackId)) {
+                recommendedProductIds.add(fallbackId);
+                if (recommendedProductIds.size() >= limit) {
+                    break;
+                }
+            }
+        }
     }
 
     /**
      * Fallback推荐策略：推荐同类目的热门商品
-     * @param productId 当前商品ID
+     * @param productId 当前商品ID，为null时不限类目（用于个性化推荐的冷启动）
      * @param limit 推荐数量
      * @return 推荐商品ID列表
      */
     private List<String> getFallbackRecommendations(String productId, int limit) {
-        ShopProduct currentProduct = shopProductMapper.selectById(productId);
+        ShopProduct currentProduct = productId != null ? shopProductMapper.selectById(productId) : null;
         
         LambdaQueryWrapper<ShopProduct> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(ShopProduct::getStatus, 1) // 上架状态
                 .gt(ShopProduct::getStock, 0) // 有库存
-                .ne(ShopProduct::getId, productId); // 排除当前商品
+                .ne(productId != null, ShopProduct::getId, productId); // 排除当前商品
         
         // 优先推荐同类目商品
         if (currentProduct != null && currentProduct.getCategoryId() != null) {
@@ -220,7 +245,7 @@ public class ProductRecommendService {
             LambdaQueryWrapper<ShopProduct> otherWrapper = new LambdaQueryWrapper<>();
             otherWrapper.eq(ShopProduct::getStatus, 1)
                     .gt(ShopProduct::getStock, 0)
-                    .ne(ShopProduct::getId, productId);
+                    .ne(productId != null, ShopProduct::getId, productId);
             
             if (currentProduct != null && currentProduct.getCategoryId() != null) {
                 otherWrapper.ne(ShopProduct::getCategoryId, currentProduct.getCategoryId());
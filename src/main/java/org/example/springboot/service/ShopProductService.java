@@ -19,6 +19,8 @@ import org.example.springboot.exception.BusinessException;
 import org.example.springboot.mapper.ShopProductMapper;
 import org.example.springboot.mapper.SysFileInfoMapper;
 import org.example.springboot.service.convert.ShopProductConvert;
+import org.example.springboot.service.stock.HotStockService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,6 +40,13 @@ public class ShopProductService extends ServiceImpl<ShopProductMapper, ShopProdu
 
     private final ShopCategoryService shopCategoryService;
     private final SysFileInfoMapper sysFileInfoMapper;
+    private final HotStockService hotStockService;
+
+    /**
+     * 按版本号设置库存时的最大重试次数
+     */
+    @Value("${shop.stock.max-retries:3}")
+    private int stockUpdateMaxRetries;
 
     /**
      * 创建商品
@@ -81,10 +90,19 @@ public class ShopProductService extends ServiceImpl<ShopProductMapper, ShopProdu
             }
         }
 
-        // 应用更新
+        // 应用更新（库存字段不随实体写入）
         ShopProductConvert.applyUpdateToEntity(product, updateDTO);
         updateById(product);
 
+        // 库存按读取时的版本号设置；事务内无法读到新版本，冲突时直接提示刷新
+        if (updateDTO.getStock() != null) {
+            checkNotHotStock(id);
+        }
+        if (updateDTO.getStock() != null
+                && baseMapper.updateStockWithVersion(id, updateDTO.getStock(), product.getVersion()) == 0) {
+            throw new BusinessException("库存已发生变动，请刷新后重试");
+        }
+
         log.info("商品更新成功，ID: {}", id);
         return getProductDetailById(id);
     }
@@ -263,20 +281,78 @@ public class ShopProductService extends ServiceImpl<ShopProductMapper, ShopProdu
 
     /**
      * 更新商品库存
+     * 按版本号设置，版本冲突（并发下单扣减）时重新读取后重试，最多重试 stockUpdateMaxRetries 次。
+     * 不开启事务：每次重试都需要读到最新提交的版本号
      */
-    @Transactional(rollbackFor = Exception.class)
     public void updateStock(String id, Integer quantity) {
         log.info("开始更新商品库存，ID: {}, 数量: {}", id, quantity);
+        if (quantity == null || quantity < 0) {
+            throw new BusinessException("库存数量不能小于0");
+        }
 
-        ShopProduct product = getById(id);
-        if (product == null) {
-            throw new BusinessException("商品不存在");
+        checkNotHotStock(id);
+
+        for (int attempt = 0; attempt <= stockUpdateMaxRetries; attempt++) {
+            ShopProduct product = getById(id);
+            if (product == null) {
+                throw new BusinessException("商品不存在");
+            }
+            if (baseMapper.updateStockWithVersion(id, quantity, product.getVersion()) > 0) {
+                log.info("商品库存更新成功，ID: {}, 重试次数: {}", id, attempt);
+                return;
+            }
+            log.debug("商品库存版本冲突，ID: {}, 版本: {}, 第{}次重试", id, product.getVersion(), attempt + 1);
         }
+        log.warn("商品库存更新冲突次数超过上限，ID: {}", id);
+        throw new BusinessException("库存正在变动，请稍后重试");
+    }
 
-        product.setStock(quantity);
-        updateById(product);
+    /**
+     * 热卖模式下库存由内存计数器管理，不允许直接设置
+     */
+    private void checkNotHotStock(String id) {
+        if (hotStockService.isHot(id)) {
+            throw new BusinessException("商品处于热卖库存模式，请先关闭后再修改库存");
+        }
+    }
 
-        log.info("商品库存更新成功，ID: {}", id);
+    /**
+     * 扣减库存（下单时调用）
+     * 单条条件SQL完成"上架且库存充足"的判断与扣减，并发下单不会超卖；
+     * 多个商品在一条语句中扣减，任一商品不满足条件时整单失败
+     * @param quantities 商品ID -> 扣减数量
+     */
+    public void deductStocks(Map<String, Integer> quantities) {
+        if (quantities.size() == 1) {
+            Map.Entry<String, Integer> entry = quantities.entrySet().iterator().next();
+            if (baseMapper.decreaseStock(entry.getKey(), entry.getValue()) == 0) {
+                throw new BusinessException("商品已下架或库存不足");
+            }
+            return;
+        }
+        if (baseMapper.decreaseStockBatch(quantities) != quantities.size()) {
+            throw new BusinessException("部分商品已下架或库存不足");
+        }
+    }
+
+    /**
+     * 回补库存（取消订单时调用），多个商品在一条语句中回补
+     * @param quantities 商品ID -> 回补数量
+     */
+    public void restoreStocks(Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        int updated;
+        if (quantities.size() == 1) {
+            Map.Entry<String, Integer> entry = quantities.entrySet().iterator().next();
+            updated = baseMapper.increaseStock(entry.getKey(), entry.getValue());
+        } else {
+            updated = baseMapper.increaseStockBatch(quantities);
+        }
+        if (updated < quantities.size()) {
+            log.warn("回补库存时部分商品不存在，商品数: {}, 实际回补: {}", quantities.size(), updated);
+        }
     }
 
     /**
@@ -11,8 +11,12 @@ import org.springframework.util.StringUtils;
 import jakarta.annotation.Resource;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
+import org.example.springboot.entity.HeritageItem;
 import org.example.springboot.entity.User;
+import org.example.springboot.mapper.HeritageItemMapper;
 import org.example.springboot.mapper.UserMapper;
 import org.example.springboot.dto.command.*;
 import org.example.springboot.dto.query.*;
@@ -20,8 +24,13 @@ import org.example.springboot.dto.response.*;
 import org.example.springboot.enums.UserType;
 import org.example.springboot.exception.BusinessException;
 import org.example.springboot.exception.ServiceException;
-import org.example.springboot.util.JwtTokenUtils;
+import org.example.springboot.util.TransactionUtils;
+import org.example.springboot.service.auth.JwtTokenService;
+import org.example.springboot.service.auth.RefreshTokenService;
+import org.example.springboot.service.cache.HeritageItemDetailCache;
+import org.example.springboot.service.cache.UserPrincipalCache;
 import org.example.springboot.service.convert.UserConvert;
+import org.example.springboot.service.dashboard.DashboardPushService;
 
 /**
  * 用户业务逻辑层
@@ -34,6 +43,24 @@ public class UserService {
     @Resource
     private UserMapper userMapper;
 
+    @Resource
+    private DashboardPushService dashboardPushService;
+
+    @Resource
+    private UserPrincipalCache userPrincipalCache;
+
+    @Resource
+    private JwtTokenService jwtTokenService;
+
+    @Resource
+    private RefreshTokenService refreshTokenService;
+
+    @Resource
+    private HeritageItemMapper heritageItemMapper;
+
+    @Resource
+    private HeritageItemDetailCache heritageItemDetailCache;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     /**
@@ -65,12 +92,8 @@ public class UserService {
                 throw new BusinessException("账号已被禁用，请联系管理员");
             }
 
-            // 生成JWT token
-            String token = JwtTokenUtils.generateToken(user.getId(), user.getUsername(), user.getUserType());
-
-            // 构建响应
-            UserDetailResponseDTO userInfo = UserConvert.entityToDetailResponse(user);
-            return UserConvert.buildLoginResponse(token, userInfo);
+            // 开启会话，签发短期访问令牌与刷新令牌
+            return refreshTokenService.createSession(user);
 
         } catch (BusinessException e) {
             throw e;
@@ -117,6 +140,7 @@ public class UserService {
             User user = UserConvert.registerCommandToEntity(registerDTO, encodedPassword);
 
             userMapper.insert(user);
+            TransactionUtils.afterCommit(dashboardPushService::recordNewUser);
             log.info("用户注册成功: {}", user.getUsername());
 
             return UserConvert.entityToDetailResponse(user);
@@ -142,6 +166,18 @@ public class UserService {
         return UserConvert.entityToDetailResponse(user);
     }
 
+    /**
+     * 获取认证用户信息（JWT认证用，带缓存）
+     * @param userId 用户ID
+     * @return 用户信息，用户不存在时返回null
+     */
+    public UserDetailResponseDTO getAuthenticatedUser(Long userId) {
+        return userPrincipalCache.get(userId, id -> {
+            User user = userMapper.selectById(id);
+            return user == null ? null : UserConvert.entityToDetailResponse(user);
+        });
+    }
+
 
 
     /**
@@ -208,6 +244,9 @@ public class UserService {
             }
 
             userMapper.deleteById(userId);
+            userPrincipalCache.invalidate(userId);
+            refreshTokenService.revokeUser(userId);
+            TransactionUtils.afterCommit(() -> jwtTokenService.revokeUser(userId));
             log.info("用户删除成功: {}", user.getUsername());
 
         } catch (BusinessException e) {
@@ -252,8 +291,23 @@ public class UserService {
             }
 
             // 应用更新
+            String previousUserType = user.getUserType();
+            String previousName = user.getName();
             UserConvert.applyUpdateToEntity(user, updateDTO);
             userMapper.updateById(user);
+            userPrincipalCache.invalidate(userId);
+            if (!Objects.equals(previousName, user.getName())) {
+                // 作品详情缓存中带有创建人姓名
+                invalidateCreatedItemDetails(userId);
+            }
+            if (!user.isActive()) {
+                // 禁用后刷新令牌作废，已签发的访问令牌立即失效
+                refreshTokenService.revokeUser(userId);
+                TransactionUtils.afterCommit(() -> jwtTokenService.revokeUser(userId));
+            } else if (!Objects.equals(previousUserType, user.getUserType())) {
+                // 访问令牌携带用户类型，类型变更后旧令牌立即失效，客户端刷新后取得新的用户类型
+                TransactionUtils.afterCommit(() -> jwtTokenService.revokeUser(userId));
+            }
 
             log.info("用户信息更新成功: {}", user.getUsername());
             return UserConvert.entityToDetailResponse(user);
@@ -267,7 +321,7 @@ public class UserService {
     }
 
     /**
-     * 修改用户密码
+     * 修改用户密码，修改后所有会话（包括当前会话）需重新登录
      * @param userId 用户ID
      * @param passwordDTO 密码更新信息
      */
@@ -288,6 +342,10 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(passwordDTO.getNewPassword()));
             user.setUpdatedAt(LocalDateTime.now());
             userMapper.updateById(user);
+            userPrincipalCache.invalidate(userId);
+            // 与重置密码一致：全部会话的刷新令牌作废，已签发的访问令牌立即失效，需重新登录
+            refreshTokenService.revokeUser(userId);
+            TransactionUtils.afterCommit(() -> jwtTokenService.revokeUser(userId));
 
             log.info("用户密码修改成功: {}", user.getUsername());
 
@@ -319,6 +377,9 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(newPassword));
             user.setUpdatedAt(LocalDateTime.now());
             userMapper.updateById(user);
+            userPrincipalCache.invalidate(user.getId());
+            refreshTokenService.revokeUser(user.getId());
+            TransactionUtils.afterCommit(() -> jwtTokenService.revokeUser(user.getId()));
 
             log.info("用户密码重置成功: {}", user.getUsername());
 
@@ -360,6 +421,9 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(resetDTO.getNewPassword()));
             user.setUpdatedAt(LocalDateTime.now());
             userMapper.updateById(user);
+            userPrincipalCache.invalidate(user.getId());
+            refreshTokenService.revokeUser(user.getId());
+            TransactionUtils.afterCommit(() -> jwtTokenService.revokeUser(user.getId()));
 
             log.info("用户密码重置成功（三要素验证）: {}", user.getUsername());
 
@@ -371,5 +435,15 @@ public class UserService {
         }
     }
 
-
+    /**
+     * 使用户创建的作品详情缓存失效
+     * @param userId 用户ID
+     */
+    private void invalidateCreatedItemDetails(Long userId) {
+        LambdaQueryWrapper<HeritageItem> itemQuery = new LambdaQueryWrapper<>();
+        itemQuery.select(HeritageItem::getId).eq(HeritageItem::getCreatorId, String.valueOf(userId));
+        heritageItemDetailCache.invalidateAll(heritageItemMapper.selectList(itemQuery).stream()
+                .map(HeritageItem::getId)
+                .collect(Collectors.toList()));
+    }
 }
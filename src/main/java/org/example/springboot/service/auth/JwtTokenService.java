@@ -0,0 +1,295 @@
+package org.example.springboot.service.auth;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.common.cache.LocalCache;
+import org.example.springboot.config.JwtConfig;
+import org.example.springboot.util.JwtTokenUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JWT校验与注销服务
+ *
+ * 1. 已校验的token按摘要（SHA-256）缓存解码结果，直到token过期或缓存过期，
+ *    同一token的后续请求不再做签名校验和JSON解析
+ * 2. 注销列表：注销单个token（退出登录），或使某用户在某时刻之前签发的全部token失效（禁用、删除、重置密码）；
+ *    每个请求只查内存，不查数据库
+ * 3. 可选开启Redis：注销记录写入Redis哈希并通过频道广播，各实例实时同步，启动时从Redis加载
+ *
+ * @author system
+ */
+@Slf4j
+@Service
+public class JwtTokenService {
+
+    private static final String REDIS_REVOKED_TOKENS = "jwt:revoked:tokens";
+    private static final String REDIS_REVOKED_USERS = "jwt:revoked:users";
+    private static final String REDIS_CHANNEL = "jwt:revocation";
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @Resource
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Resource
+    private JwtConfig jwtConfig;
+
+    @Value("${heritage.token.cache-max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${heritage.token.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    @Value("${heritage.token.redis-enabled:false}")
+    private boolean redisEnabled;
+
+    /**
+     * 用户失效记录的保留时长：不短于仍可能未过期的token的最长有效期（升级前签发的7天token），
+     * 不随当前 jwt.expiration 缩短
+     */
+    @Value("${heritage.token.revocation-retention-ms:604800000}")
+    private long revocationRetentionMillis;
+
+    /**
+     * token摘要 -> 解码结果
+     */
+    private LocalCache<String, DecodedJWT> verifiedTokens;
+
+    /**
+     * 已注销的token：摘要 -> token过期时间（epoch毫秒）
+     */
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * 已失效的用户：用户ID -> 失效时间（epoch毫秒），此前签发的token全部失效
+     */
+    private final ConcurrentHashMap<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    private StringRedisTemplate redisTemplate;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final LongAdder signatureVerifications = new LongAdder();
+    private final LongAdder revokedRejections = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        verifiedTokens = new LocalCache<>("verifiedToken", cacheMaxSize, cacheTtlSeconds * 1000);
+        revocationRetentionMillis = Math.max(revocationRetentionMillis, jwtConfig.getExpiration());
+        if (redisEnabled) {
+            redisTemplate = redisTemplateProvider.getIfAvailable();
+        }
+        if (redisTemplate != null) {
+            loadFromRedis();
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+            listenerContainer.addMessageListener((message, pattern) ->
+                    applyRevocation(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(REDIS_CHANNEL));
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+        }
+        log.info("JWT校验服务初始化: 缓存={}条/{}s, redis={}", cacheMaxSize, cacheTtlSeconds, redisTemplate != null);
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * 校验token：签名、签发者、过期时间与注销状态
+     * @param token JWT token
+     * @return 解码后的JWT
+     * @throws JWTVerificationException token无效、过期或已注销
+     */
+    public DecodedJWT verify(String token) throws JWTVerificationException {
+        String digest = digest(token);
+        DecodedJWT jwt = verifiedTokens.getIfPresent(digest);
+        if (jwt == null || jwt.getExpiresAt() == null || jwt.getExpiresAt().getTime() <= System.currentTimeMillis()) {
+            verifiedTokens.invalidate(digest);
+            jwt = JwtTokenUtils.verifyToken(token);
+            signatureVerifications.increment();
+            verifiedTokens.put(digest, jwt);
+        }
+        checkNotRevoked(digest, jwt);
+        return jwt;
+    }
+
+    /**
+     * 注销单个token（退出登录）
+     * @param jwt 已校验的token
+     */
+    public void revoke(DecodedJWT jwt) {
+        long expiresAt = jwt.getExpiresAt() != null
+                ? jwt.getExpiresAt().getTime() : System.currentTimeMillis() + revocationRetentionMillis;
+        String digest = digest(jwt.getToken());
+        revokedTokens.put(digest, expiresAt);
+        replicate(REDIS_REVOKED_TOKENS, digest, expiresAt, "T");
+    }
+
+    /**
+     * 使用户当前已签发的全部token失效（禁用、删除、重置密码、用户类型变更）
+     * 按毫秒签发时间比较，失效之后刷新得到的新token不受影响
+     * @param userId 用户ID
+     */
+    public void revokeUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        long revokedAt = System.currentTimeMillis();
+        revokedUsers.merge(userId, revokedAt, Math::max);
+        replicate(REDIS_REVOKED_USERS, String.valueOf(userId), revokedAt, "U");
+    }
+
+    /**
+     * 定时清理：token过期后注销记录不再需要（用户失效记录保留到此前签发的token全部过期）
+     */
+    @Scheduled(fixedDelay = 600_000)
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        revokedTokens.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue() <= now;
+            if (expired && redisTemplate != null) {
+                removeFromRedis(REDIS_REVOKED_TOKENS, entry.getKey());
+            }
+            return expired;
+        });
+        revokedUsers.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue() + revocationRetentionMillis <= now;
+            if (expired && redisTemplate != null) {
+                removeFromRedis(REDIS_REVOKED_USERS, String.valueOf(entry.getKey()));
+            }
+            return expired;
+        });
+    }
+
+    /**
+     * 统计信息：签名校验次数、缓存命中、注销记录数
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(verifiedTokens.stats());
+        stats.put("signatureVerifications", signatureVerifications.sum());
+        stats.put("revokedRejections", revokedRejections.sum());
+        stats.put("revokedTokens", revokedTokens.size());
+        stats.put("revokedUsers", revokedUsers.size());
+        stats.put("redisEnabled", redisTemplate != null);
+        return stats;
+    }
+
+    private void checkNotRevoked(String digest, DecodedJWT jwt) {
+        if (revokedTokens.containsKey(digest)) {
+            revokedRejections.increment();
+            throw new JWTVerificationException("token已注销");
+        }
+        if (revokedUsers.isEmpty()) {
+            return;
+        }
+        Long userId = jwt.getClaim(JwtTokenUtils.CLAIM_USER_ID).asLong();
+        Long revokedAt = userId == null ? null : revokedUsers.get(userId);
+        if (revokedAt == null) {
+            return;
+        }
+        Long issuedAt = JwtTokenUtils.getIssuedAtMillis(jwt);
+        if (issuedAt == null || issuedAt <= revokedAt) {
+            revokedRejections.increment();
+            throw new JWTVerificationException("token已失效");
+        }
+    }
+
+    /**
+     * 写入Redis并广播；失败时只影响其他实例，本实例已生效
+     */
+    private void replicate(String hashKey, String field, long value, String type) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForHash().put(hashKey, field, String.valueOf(value));
+            redisTemplate.convertAndSend(REDIS_CHANNEL, type + ":" + field + ":" + value);
+        } catch (Exception e) {
+            log.error("token注销记录同步到Redis失败: {} {}", type, field, e);
+        }
+    }
+
+    private void removeFromRedis(String hashKey, String field) {
+        try {
+            redisTemplate.opsForHash().delete(hashKey, field);
+        } catch (Exception e) {
+            log.error("清理Redis中的token注销记录失败: {}", field, e);
+        }
+    }
+
+    /**
+     * 应用其他实例广播的注销记录，格式：T:摘要:过期时间 或 U:用户ID:失效时间
+     */
+    private void applyRevocation(String message) {
+        String[] parts = message.split(":", 3);
+        if (parts.length != 3) {
+            log.warn("无法识别的token注销消息: {}", message);
+            return;
+        }
+        try {
+            long value = Long.parseLong(parts[2]);
+            if ("T".equals(parts[0])) {
+                revokedTokens.put(parts[1], value);
+            } else if ("U".equals(parts[0])) {
+                revokedUsers.merge(Long.valueOf(parts[1]), value, Math::max);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("无法识别的token注销消息: {}", message);
+        }
+    }
+
+    private void loadFromRedis() {
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.<String, String>opsForHash().entries(REDIS_REVOKED_TOKENS).forEach((digest, expiresAt) -> {
+                long value = Long.parseLong(expiresAt);
+                if (value > now) {
+                    revokedTokens.put(digest, value);
+                }
+            });
+            redisTemplate.<String, String>opsForHash().entries(REDIS_REVOKED_USERS).forEach((userId, revokedAt) -> {
+                long value = Long.parseLong(revokedAt);
+                if (value + revocationRetentionMillis > now) {
+                    revokedUsers.merge(Long.valueOf(userId), value, Math::max);
+                }
+            });
+            log.info("从Redis加载token注销记录: token={}, 用户={}", revokedTokens.size(), revokedUsers.size());
+        } catch (Exception e) {
+            log.error("从Redis加载token注销记录失败", e);
+        }
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
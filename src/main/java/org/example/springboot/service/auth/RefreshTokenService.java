@@ -0,0 +1,198 @@
+package org.example.springboot.service.auth;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.config.JwtConfig;
+import org.example.springboot.dto.response.UserLoginResponseDTO;
+import org.example.springboot.entity.User;
+import org.example.springboot.entity.UserRefreshToken;
+import org.example.springboot.exception.BusinessException;
+import org.example.springboot.mapper.UserMapper;
+import org.example.springboot.mapper.UserRefreshTokenMapper;
+import org.example.springboot.service.convert.UserConvert;
+import org.example.springboot.util.JwtTokenUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 刷新令牌服务
+ *
+ * 1. 登录时签发短期访问令牌（携带用户类型与状态，过滤器据此认证）和一次性刷新令牌，一次登录对应一个会话
+ * 2. 刷新令牌只保存SHA-256摘要；每次刷新把旧令牌标记为已轮换，在同一会话下签发新令牌，并重新读取用户类型与状态
+ * 3. 已轮换的令牌再次出现说明令牌已泄露（或被重放），注销整个会话，持有者需重新登录
+ * 4. 退出登录注销当前会话；禁用、删除、重置密码注销用户的全部会话
+ *
+ * @author system
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @Resource
+    private UserRefreshTokenMapper userRefreshTokenMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private JwtConfig jwtConfig;
+
+    /**
+     * 开启新会话并签发令牌（登录）
+     * @param user 已通过认证的用户
+     * @return 登录响应
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public UserLoginResponseDTO createSession(User user) {
+        long sessionId = RANDOM.nextLong() & Long.MAX_VALUE;
+        return issue(user, sessionId);
+    }
+
+    /**
+     * 使用刷新令牌换取新的访问令牌和刷新令牌
+     * 检测到令牌重用时注销会话的操作需要保留，业务异常不回滚
+     * @param refreshToken 刷新令牌
+     * @return 新的令牌
+     */
+    @Transactional(rollbackFor = Exception.class, noRollbackFor = BusinessException.class)
+    public UserLoginResponseDTO refresh(String refreshToken) {
+        LambdaQueryWrapper<UserRefreshToken> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(UserRefreshToken::getTokenHash, hash(refreshToken));
+        UserRefreshToken stored = userRefreshTokenMapper.selectOne(queryWrapper);
+
+        if (stored == null || stored.getStatus() == UserRefreshToken.STATUS_REVOKED
+                || stored.getExpireTime().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("登录已过期，请重新登录");
+        }
+        if (stored.getStatus() == UserRefreshToken.STATUS_ROTATED) {
+            revokeReusedSession(stored);
+        }
+
+        User user = userMapper.selectById(stored.getUserId());
+        if (user == null || !user.isActive()) {
+            revokeSession(stored.getSessionId());
+            throw new BusinessException("账号已被禁用，请联系管理员");
+        }
+
+        // 以"仍有效"为条件轮换，并发使用同一令牌时只有一个请求成功，其余视为重用
+        LambdaUpdateWrapper<UserRefreshToken> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(UserRefreshToken::getStatus, UserRefreshToken.STATUS_ROTATED)
+                .eq(UserRefreshToken::getId, stored.getId())
+                .eq(UserRefreshToken::getStatus, UserRefreshToken.STATUS_ACTIVE);
+        if (userRefreshTokenMapper.update(null, updateWrapper) == 0) {
+            revokeReusedSession(stored);
+        }
+        return issue(user, stored.getSessionId());
+    }
+
+    /**
+     * 注销会话（退出登录）
+     * @param sessionId 会话ID
+     */
+    public void revokeSession(Long sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        LambdaUpdateWrapper<UserRefreshToken> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(UserRefreshToken::getStatus, UserRefreshToken.STATUS_REVOKED)
+                .eq(UserRefreshToken::getSessionId, sessionId)
+                .eq(UserRefreshToken::getStatus, UserRefreshToken.STATUS_ACTIVE);
+        userRefreshTokenMapper.update(null, updateWrapper);
+    }
+
+    /**
+     * 注销用户的全部会话（禁用、删除、重置密码）
+     * @param userId 用户ID
+     */
+    public void revokeUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        LambdaUpdateWrapper<UserRefreshToken> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(UserRefreshToken::getStatus, UserRefreshToken.STATUS_REVOKED)
+                .eq(UserRefreshToken::getUserId, userId)
+                .eq(UserRefreshToken::getStatus, UserRefreshToken.STATUS_ACTIVE);
+        userRefreshTokenMapper.update(null, updateWrapper);
+    }
+
+    /**
+     * 定时清理已过期的刷新令牌（已轮换的令牌保留到过期，用于重用检测）
+     */
+    @Scheduled(cron = "${heritage.token.refresh-cleanup-cron:0 30 4 * * ?}")
+    public void cleanup() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted;
+        int total = 0;
+        do {
+            LambdaQueryWrapper<UserRefreshToken> wrapper = new LambdaQueryWrapper<>();
+            wrapper.lt(UserRefreshToken::getExpireTime, now)
+                    .last("LIMIT " + CLEANUP_BATCH_SIZE);
+            deleted = userRefreshTokenMapper.delete(wrapper);
+            total += deleted;
+        } while (deleted == CLEANUP_BATCH_SIZE);
+        log.info("清理过期刷新令牌: {}条", total);
+    }
+
+    /**
+     * 已轮换的令牌被再次使用：注销整个会话
+     */
+    private void revokeReusedSession(UserRefreshToken stored) {
+        revokeSession(stored.getSessionId());
+        log.warn("检测到刷新令牌重用，已注销会话: userId={}, sessionId={}", stored.getUserId(), stored.getSessionId());
+        throw new BusinessException("登录已失效，请重新登录");
+    }
+
+    /**
+     * 在会话下签发访问令牌和新的刷新令牌
+     */
+    private UserLoginResponseDTO issue(User user, long sessionId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        userRefreshTokenMapper.insert(UserRefreshToken.builder()
+                .userId(user.getId())
+                .sessionId(sessionId)
+                .tokenHash(hash(refreshToken))
+                .status(UserRefreshToken.STATUS_ACTIVE)
+                .expireTime(now.plus(Duration.ofMillis(jwtConfig.getRefreshExpiration())))
+                .createTime(now)
+                .build());
+
+        long expiration = jwtConfig.getExpiration();
+        String token = JwtTokenUtils.generateToken(user.getId(), user.getUsername(), user.getUserType(),
+                user.getStatus(), sessionId, expiration);
+        return UserConvert.buildLoginResponse(token, refreshToken, expiration / 1000,
+                UserConvert.entityToDetailResponse(user));
+    }
+
+    private static String hash(String refreshToken) {
+        byte[] hash = SHA256.get().digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.springboot.service.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.common.cache.LocalCache;
+import org.example.springboot.dto.response.HeritageItemDetailResponseDTO;
+import org.example.springboot.dto.response.HeritageItemInheritorResponseDTO;
+import org.example.springboot.dto.response.HeritageItemMediaResponseDTO;
+import org.example.springboot.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 非遗作品详情缓存
+ * 1. 缓存组装完成的详情DTO（作品、创建人、封面、媒体），由作品写操作、作品文件变更和创建人姓名变更精确失效
+ * 2. 每次返回缓存条目的副本，调用方修改返回结果（浏览量、按用户填充的字段等）不会影响缓存
+ * @author system
+ */
+@Slf4j
+@Component
+public class HeritageItemDetailCache {
+
+    @Value("${heritage.detail-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${heritage.detail-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private LocalCache<String, HeritageItemDetailResponseDTO> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new LocalCache<>("heritageItemDetail", maxSize, ttlSeconds * 1000);
+        log.info("非遗作品详情缓存初始化: maxSize={}, ttl={}s", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 读穿透获取作品详情
+     * @param itemId 作品ID
+     * @param loader 未命中时的加载逻辑
+     * @return 作品详情（副本，可修改）
+     */
+    public HeritageItemDetailResponseDTO get(String itemId, Function<String, HeritageItemDetailResponseDTO> loader) {
+        return copy(cache.get(itemId, loader));
+    }
+
+    /**
+     * 使作品详情失效：立即失效一次，事务提交后再失效一次，防止提交前的并发读取写回旧数据
+     * @param itemId 作品ID
+     */
+    public void invalidate(String itemId) {
+        if (itemId == null) {
+            return;
+        }
+        cache.invalidate(itemId);
+        TransactionUtils.afterCommit(() -> cache.invalidate(itemId));
+    }
+
+    /**
+     * 批量使作品详情失效（如创建人姓名变更）
+     * @param itemIds 作品ID
+     */
+    public void invalidateAll(Collection<String> itemIds) {
+        for (String itemId : itemIds) {
+            invalidate(itemId);
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 复制详情DTO（含媒体、传承人列表中的元素）
+     */
+    private static HeritageItemDetailResponseDTO copy(HeritageItemDetailResponseDTO source) {
+        if (source == null) {
+            return null;
+        }
+        HeritageItemDetailResponseDTO target = new HeritageItemDetailResponseDTO();
+        target.setId(source.getId());
+        target.setTitle(source.getTitle());
+        target.setCategory(source.getCategory());
+        target.setRegion(source.getRegion());
+        target.setSummary(source.getSummary());
+        target.setDescription(source.getDescription());
+        target.setStatus(source.getStatus());
+        target.setStatusName(source.getStatusName());
+        target.setCreatorId(source.getCreatorId());
+        target.setCreatorName(source.getCreatorName());
+        target.setViewCount(source.getViewCount());
+        target.setPublishTime(source.getPublishTime());
+        target.setCreateTime(source.getCreateTime());
+        target.setUpdateTime(source.getUpdateTime());
+        target.setCoverFileId(source.getCoverFileId());
+        target.setCoverImage(source.getCoverImage());
+        if (source.getMediaList() != null) {
+            List<HeritageItemMediaResponseDTO> mediaList = new ArrayList<>(source.getMediaList().size());
+            for (HeritageItemMediaResponseDTO media : source.getMediaList()) {
+                mediaList.add(copy(media));
+            }
+            target.setMediaList(mediaList);
+        }
+        if (source.getInheritorList() != null) {
+            List<HeritageItemInheritorResponseDTO> inheritorList = new ArrayList<>(source.getInheritorList().size());
+            for (HeritageItemInheritorResponseDTO inheritor : source.getInheritorList()) {
+                inheritorList.add(copy(inheritor));
+            }
+            target.setInheritorList(inheritorList);
+        }
+        return target;
+    }
+
+    private static HeritageItemMediaResponseDTO copy(HeritageItemMediaResponseDTO source) {
+        HeritageItemMediaResponseDTO target = new HeritageItemMediaResponseDTO();
+        target.setId(source.getId());
+        target.setFileId(source.getFileId());
+        target.setFilePath(source.getFilePath());
+        target.setOriginalName(source.getOriginalName());
+        target.setFileSize(source.getFileSize());
+        target.setType(source.getType());
+        target.setSort(source.getSort());
+        return target;
+    }
+
+    private static HeritageItemInheritorResponseDTO copy(HeritageItemInheritorResponseDTO source) {
+        HeritageItemInheritorResponseDTO target = new HeritageItemInheritorResponseDTO();
+        target.setId(source.getId());
+        target.setName(source.getName());
+        target.setTitle(source.getTitle());
+        target.setRegion(source.getRegion());
+        target.setAvatarPath(source.getAvatarPath());
+        return target;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.springboot.service.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.common.cache.LocalCache;
+import org.example.springboot.dto.response.UserDetailResponseDTO;
+import org.example.springboot.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 认证用户缓存
+ * 缓存JWT认证时查询的用户信息（按用户ID），避免每个请求都查询用户表；
+ * 用户信息、状态、类型、密码变更及删除时精确失效，存活时间兜底其他途径的变更
+ * @author system
+ */
+@Slf4j
+@Component
+public class UserPrincipalCache {
+
+    @Value("${heritage.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${heritage.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private LocalCache<Long, UserDetailResponseDTO> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new LocalCache<>("userPrincipal", maxSize, ttlSeconds * 1000);
+        log.info("认证用户缓存初始化: maxSize={}, ttl={}s", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 读穿透获取认证用户
+     * @param userId 用户ID
+     * @param loader 未命中时的加载逻辑（用户不存在时返回null，不缓存）
+     * @return 用户信息
+     */
+    public UserDetailResponseDTO get(Long userId, Function<Long, UserDetailResponseDTO> loader) {
+        return cache.get(userId, loader);
+    }
+
+    /**
+     * 使认证用户失效：立即失效一次，事务提交后再失效一次，防止提交前的并发读取写回旧数据
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.invalidate(userId);
+        TransactionUtils.afterCommit(() -> cache.invalidate(userId));
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.springboot.service.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.common.cache.LocalCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 用户个性化推荐缓存
+ * 缓存按得分排序的候选商品ID（未做库存过滤），用户支付新订单时失效，其余变化依赖过期时间
+ * @author system
+ */
+@Slf4j
+@Component
+public class UserRecommendationCache {
+
+    @Value("${shop.recommend.user-cache.max-size:50000}")
+    private int maxSize;
+
+    @Value("${shop.recommend.user-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private LocalCache<Long, List<String>> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new LocalCache<>("userRecommendation", maxSize, ttlSeconds * 1000);
+        log.info("用户个性化推荐缓存初始化: maxSize={}, ttl={}s", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 读穿透获取用户的推荐候选
+     * @param userId 用户ID
+     * @param loader 未命中时的计算逻辑
+     * @return 按得分降序排列的商品ID
+     */
+    public List<String> get(Long userId, Function<Long, List<String>> loader) {
+        return cache.get(userId, loader);
+    }
+
+    /**
+     * 使用户的推荐结果失效
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+}
@@ -110,6 +110,7 @@ public class HeritageItemConvert {
         response.setStatusName(item.getStatusDisplayName());
         response.setCreatorId(item.getCreatorId());
         response.setCoverFileId(item.getCoverFileId());
+        response.setViewCount(item.getViewCount());
         response.setPublishTime(item.getPublishTime());
         response.setCreateTime(item.getCreateTime());
         response.setUpdateTime(item.getUpdateTime());
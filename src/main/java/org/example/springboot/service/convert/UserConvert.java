@@ -62,14 +62,19 @@ public class UserConvert {
 
     /**
      * 构建登录响应DTO
-     * @param token JWT令牌
+     * @param token JWT访问令牌
+     * @param refreshToken 刷新令牌
+     * @param expiresIn 访问令牌有效期（秒）
      * @param userInfo 用户信息
      * @return 登录响应DTO
      */
-    public static UserLoginResponseDTO buildLoginResponse(String token, UserDetailResponseDTO userInfo) {
+    public static UserLoginResponseDTO buildLoginResponse(String token, String refreshToken, long expiresIn,
+                                                          UserDetailResponseDTO userInfo) {
         return UserLoginResponseDTO.builder()
                 .userInfo(userInfo)
                 .token(token)
+                .refreshToken(refreshToken)
+                .expiresIn(expiresIn)
                 .roleType(userInfo.getUserType())
                 .build();
     }
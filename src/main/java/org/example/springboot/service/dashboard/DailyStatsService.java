@@ -0,0 +1,329 @@
+package org.example.springboot.service.dashboard;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.common.cache.LocalCache;
+import org.example.springboot.entity.DailyStats;
+import org.example.springboot.entity.ShopOrderOutbox;
+import org.example.springboot.enums.OrderEventType;
+import org.example.springboot.enums.OrderStatus;
+import org.example.springboot.exception.BusinessException;
+import org.example.springboot.mapper.DailyStatsMapper;
+import org.example.springboot.mapper.ShopOrderOutboxMapper;
+import org.example.springboot.service.event.OrderEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 订单统计汇总服务（daily_stats）
+ *
+ * 1. 按订单创建时间的小时汇总下单数、已支付订单数与销售额，按天统计时合计24个小时
+ * 2. 订单事件增量更新：下单计入下单数，支付计入销售额，已支付订单关闭时扣回；
+ *    同一批事件合并为一条累加语句
+ * 3. 事件至少投递一次，本实例已累加的事件按事件ID跳过；跨实例或重启后的重复投递
+ *    由对账任务定时按订单表重建最近几天的汇总来纠正，任意日期也可手动重建
+ * 4. 重建与事件累加互斥：重建在同一快照中读取订单聚合与待投递事件，快照中已可见的待投递事件
+ *    其影响已计入重建结果，登记为已累加，之后投递时跳过，不会在重建结果上重复累加
+ * 5. 趋势查询只读汇总表，一次按日期范围读取，与订单量无关
+ *
+ * @author system
+ */
+@Slf4j
+@Service
+public class DailyStatsService {
+
+    /**
+     * 计入销售额的订单状态：已支付、已发货、已完成
+     */
+    public static final List<Integer> PAID_STATUSES = Arrays.asList(
+            OrderStatus.PAID.getCode(), OrderStatus.SHIPPED.getCode(), OrderStatus.COMPLETED.getCode());
+
+    /**
+     * 单次查询或重建的最大天数
+     */
+    public static final int MAX_RANGE_DAYS = 366;
+
+    /**
+     * 影响汇总的事件类型
+     */
+    private static final List<String> COUNTED_EVENT_TYPES = Arrays.asList(
+            OrderEventType.CREATED.name(), OrderEventType.PAID.name(), OrderEventType.CLOSED.name());
+
+    @Resource
+    private DailyStatsMapper dailyStatsMapper;
+
+    @Resource
+    private ShopOrderOutboxMapper shopOrderOutboxMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 对账任务重建最近多少天（含今天）
+     */
+    @Value("${shop.daily-stats.reconcile-days:2}")
+    private int reconcileDays;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 只读的可重复读事务：重建时订单聚合与待投递事件在同一快照中读取
+     */
+    private TransactionTemplate snapshotTemplate;
+
+    /**
+     * 已累加的事件ID（避免同一实例内重投的事件重复累加），也包括已计入重建结果的待投递事件
+     */
+    private LocalCache<Long, Boolean> appliedEvents;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setReadOnly(true);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        appliedEvents = new LocalCache<>("dailyStatsAppliedEvents", 100000, 3600_000L);
+    }
+
+    /**
+     * 按订单事件累加汇总
+     * 检查已累加事件、写入增量、登记已累加事件在同一把锁内完成：超时后仍在执行的投递与重投的同一批事件
+     * 串行执行，后执行的一方跳过已累加的事件，不会重复累加
+     * @param events 订单事件
+     * @return 本次实际累加的增量合计（不区分小时），没有需要累加的事件时返回null
+     */
+    public synchronized DailyStats applyEvents(List<OrderEvent> events) {
+        Map<LocalDateTime, DailyStats> deltas = new LinkedHashMap<>();
+        List<Long> eventIds = new ArrayList<>(events.size());
+        for (OrderEvent event : events) {
+            if (event.getEventId() != null && appliedEvents.getIfPresent(event.getEventId()) != null) {
+                continue;
+            }
+            if (accumulate(deltas, event) && event.getEventId() != null) {
+                eventIds.add(event.getEventId());
+            }
+        }
+        if (deltas.isEmpty()) {
+            return null;
+        }
+        dailyStatsMapper.upsertBatch(deltas.values());
+        for (Long eventId : eventIds) {
+            appliedEvents.put(eventId, Boolean.TRUE);
+        }
+
+        DailyStats total = emptyStats(null, null);
+        for (DailyStats delta : deltas.values()) {
+            total.setOrderCount(total.getOrderCount() + delta.getOrderCount());
+            total.setPaidCount(total.getPaidCount() + delta.getPaidCount());
+            total.setSalesAmount(total.getSalesAmount().add(delta.getSalesAmount()));
+        }
+        return total;
+    }
+
+    /**
+     * 定时对账：按订单表重建最近几天的汇总
+     */
+    @Scheduled(cron = "${shop.daily-stats.reconcile-cron:0 */10 * * * ?}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        try {
+            rebuild(today.minusDays(Math.max(reconcileDays, 1) - 1), today);
+        } catch (BusinessException e) {
+            log.warn("订单统计对账跳过: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按订单表重建日期范围内的汇总，逐天重建
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 重建的天数
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        checkRange(startDate, endDate);
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new BusinessException("统计汇总正在重建，请稍后重试");
+        }
+        long start = System.currentTimeMillis();
+        int days = 0;
+        try {
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                rebuildDay(date);
+                days++;
+            }
+            log.info("订单统计汇总重建完成: {} ~ {}, 耗时={}ms", startDate, endDate, System.currentTimeMillis() - start);
+        } finally {
+            rebuilding.set(false);
+        }
+        return days;
+    }
+
+    /**
+     * 重建一天的汇总
+     * 1. 在同一个可重复读快照中读取当天的小时聚合与待投递事件，都是普通查询，不对订单表加锁
+     * 2. 事件与订单变更在同一事务中写入，快照中可见的待投递事件其影响已计入聚合结果，登记为已累加；
+     *    快照之后提交的事件不在聚合结果中，投递时照常累加
+     * 3. 与事件累加持有同一把锁，读取快照到写入汇总之间不会有事件累加进来
+     */
+    private void rebuildDay(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = day.plusDays(1).atStartOfDay();
+        synchronized (this) {
+            List<Long> reflectedEventIds = new ArrayList<>();
+            List<DailyStats> hourly = snapshotTemplate.execute(status -> {
+                List<DailyStats> rows = dailyStatsMapper.selectHourlyRange(start, end, PAID_STATUSES);
+                for (ShopOrderOutbox pending : shopOrderOutboxMapper.selectPendingByTypes(COUNTED_EVENT_TYPES)) {
+                    LocalDateTime bucket = bucketOf(pending);
+                    if (bucket != null && !bucket.isBefore(start) && bucket.isBefore(end)) {
+                        reflectedEventIds.add(pending.getId());
+                    }
+                }
+                return rows;
+            });
+            transactionTemplate.executeWithoutResult(status -> {
+                dailyStatsMapper.deleteRange(day, day.plusDays(1));
+                if (hourly != null && !hourly.isEmpty()) {
+                    dailyStatsMapper.upsertBatch(hourly);
+                }
+            });
+            for (Long eventId : reflectedEventIds) {
+                appliedEvents.put(eventId, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * 按天查询汇总，补齐没有订单的日期
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 每天一行
+     */
+    public List<DailyStats> getDailyStats(LocalDate startDate, LocalDate endDate) {
+        checkRange(startDate, endDate);
+        Map<LocalDate, DailyStats> byDate = new HashMap<>();
+        for (DailyStats row : dailyStatsMapper.selectDaily(startDate, endDate)) {
+            byDate.put(row.getStatDate(), row);
+        }
+        List<DailyStats> result = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DailyStats row = byDate.get(date);
+            result.add(row != null ? row : emptyStats(date, null));
+        }
+        return result;
+    }
+
+    /**
+     * 按小时查询某天的汇总，补齐没有订单的小时
+     * @param date 日期
+     * @return 24行
+     */
+    public List<DailyStats> getHourlyStats(LocalDate date) {
+        LambdaQueryWrapper<DailyStats> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(DailyStats::getStatDate, date);
+        Map<Integer, DailyStats> byHour = new HashMap<>();
+        for (DailyStats row : dailyStatsMapper.selectList(wrapper)) {
+            byHour.put(row.getStatHour(), row);
+        }
+        List<DailyStats> result = new ArrayList<>(24);
+        for (int hour = 0; hour < 24; hour++) {
+            DailyStats row = byHour.get(hour);
+            result.add(row != null ? row : emptyStats(date, hour));
+        }
+        return result;
+    }
+
+    /**
+     * 把一个事件的影响累加到对应小时的增量中
+     * @return 事件是否影响汇总
+     */
+    private boolean accumulate(Map<LocalDateTime, DailyStats> deltas, OrderEvent event) {
+        long orderCount = 0;
+        long paidCount = 0;
+        BigDecimal amount = event.getPayAmount() != null ? event.getPayAmount() : BigDecimal.ZERO;
+        if (event.getType() == OrderEventType.CREATED) {
+            orderCount = 1;
+            amount = BigDecimal.ZERO;
+        } else if (event.getType() == OrderEventType.PAID) {
+            paidCount = 1;
+        } else if (event.getType() == OrderEventType.CLOSED && PAID_STATUSES.contains(event.getPreviousStatus())) {
+            paidCount = -1;
+            amount = amount.negate();
+        } else {
+            return false;
+        }
+
+        LocalDateTime bucket = bucketOf(event);
+        if (bucket == null) {
+            return false;
+        }
+        DailyStats delta = deltas.computeIfAbsent(bucket, k -> emptyStats(k.toLocalDate(), k.getHour()));
+        delta.setOrderCount(delta.getOrderCount() + orderCount);
+        delta.setPaidCount(delta.getPaidCount() + paidCount);
+        delta.setSalesAmount(delta.getSalesAmount().add(amount));
+        return true;
+    }
+
+    /**
+     * 事件计入的小时：按订单创建时间，缺失时按事件写入时间
+     */
+    private static LocalDateTime bucketOf(OrderEvent event) {
+        LocalDateTime time = event.getOrderCreateTime() != null ? event.getOrderCreateTime() : event.getOccurredAt();
+        return time != null ? time.truncatedTo(ChronoUnit.HOURS) : null;
+    }
+
+    /**
+     * 待投递事件计入的小时，无法解析的事件不会被投递，返回null
+     */
+    private LocalDateTime bucketOf(ShopOrderOutbox row) {
+        try {
+            OrderEvent event = objectMapper.readValue(row.getPayload(), OrderEvent.class);
+            event.setOccurredAt(row.getCreateTime());
+            return bucketOf(event);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void checkRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new BusinessException("统计日期范围不正确");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RANGE_DAYS) {
+            throw new BusinessException("统计日期范围不能超过" + MAX_RANGE_DAYS + "天");
+        }
+    }
+
+    private static DailyStats emptyStats(LocalDate date, Integer hour) {
+        return DailyStats.builder()
+                .statDate(date)
+                .statHour(hour)
+                .orderCount(0L)
+                .paidCount(0L)
+                .salesAmount(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.springboot.service.dashboard;
+
+import org.example.springboot.common.cache.LocalCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 仪表板单项指标
+ *
+ * 1. 计算结果按指标自己的存活时间缓存，未过期时直接返回
+ * 2. 缓存过期后只发起一次计算，同时到达的请求共用同一个计算结果
+ * 3. 记录计算次数、耗时、失败与超时次数；计算失败或超时时调用方可取上一次成功的结果
+ *
+ * @author system
+ */
+public final class DashboardMetric<T> {
+
+    private static final String KEY = "value";
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final LocalCache<String, T> cache;
+    private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+
+    private volatile T lastValue;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+    private volatile long lastLoadNanos;
+
+    /**
+     * @param name 指标名称
+     * @param ttlMillis 结果缓存时间（毫秒）
+     * @param loader 计算逻辑
+     */
+    public DashboardMetric(String name, long ttlMillis, Supplier<T> loader) {
+        this.name = name;
+        this.loader = loader;
+        this.cache = new LocalCache<>("dashboard:" + name, 1, ttlMillis);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 异步获取指标：缓存未过期时立即返回，否则在执行器中计算（正在计算时复用同一次计算）
+     */
+    public CompletableFuture<T> getAsync(Executor executor) {
+        T cached = cache.getIfPresent(KEY);
+        if (cached != null) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<T> created = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.compareAndExchange(null, created);
+        if (existing != null) {
+            return existing;
+        }
+        executor.execute(() -> {
+            try {
+                created.complete(load());
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.compareAndSet(created, null);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * 上一次成功计算的结果（计算失败或超时时的降级值），从未成功时为null
+     */
+    public T lastValue() {
+        return lastValue;
+    }
+
+    /**
+     * 记录一次等待超时
+     */
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * 使缓存失效，下次获取时重新计算
+     */
+    public void invalidate() {
+        cache.invalidate(KEY);
+    }
+
+    /**
+     * 统计信息：缓存命中、计算次数与耗时、失败与超时次数
+     */
+    public Map<String, Object> stats() {
+        long loadCount = loads.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("loads", loadCount);
+        stats.put("failures", failures.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("avgLoadMillis", loadCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLoadNanos.sum() / loadCount));
+        stats.put("maxLoadMillis", TimeUnit.NANOSECONDS.toMillis(maxLoadNanos.get()));
+        stats.put("lastLoadMillis", TimeUnit.NANOSECONDS.toMillis(lastLoadNanos));
+        return stats;
+    }
+
+    private T load() {
+        long start = System.nanoTime();
+        try {
+            T value = loader.get();
+            if (value != null) {
+                cache.put(KEY, value);
+                lastValue = value;
+            }
+            return value;
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            loads.increment();
+            totalLoadNanos.add(elapsed);
+            maxLoadNanos.accumulateAndGet(elapsed, Math::max);
+            lastLoadNanos = elapsed;
+        }
+    }
+}
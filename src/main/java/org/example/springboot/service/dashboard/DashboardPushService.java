@@ -0,0 +1,104 @@
+package org.example.springboot.service.dashboard;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.dto.response.DashboardDeltaMessageDTO;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 仪表板实时推送
+ *
+ * 1. 新订单、支付、新用户等变化只累加到计数器，不触发任何查询
+ * 2. 每个推送周期把累计的增量合并成一条消息，通过STOMP广播到 {@link #TOPIC}；
+ *    所有在线的管理员共用这一条消息，推送开销与连接数无关
+ * 3. 周期内没有变化时不推送
+ *
+ * @author system
+ */
+@Slf4j
+@Service
+public class DashboardPushService {
+
+    /**
+     * 仪表板增量推送主题
+     */
+    public static final String TOPIC = "/topic/dashboard";
+
+    @Resource
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final LongAdder newOrders = new LongAdder();
+    private final LongAdder paidOrders = new LongAdder();
+    private final LongAdder newUsers = new LongAdder();
+    private final AtomicReference<BigDecimal> salesIncrement = new AtomicReference<>(BigDecimal.ZERO);
+
+    private final LongAdder pushedMessages = new LongAdder();
+
+    /**
+     * 累加订单变化
+     * @param orderCount 新增订单数
+     * @param paidCount 新增已支付订单数
+     * @param salesAmount 销售额增量
+     */
+    public void recordOrderDelta(long orderCount, long paidCount, BigDecimal salesAmount) {
+        newOrders.add(orderCount);
+        paidOrders.add(paidCount);
+        if (salesAmount != null && salesAmount.signum() != 0) {
+            salesIncrement.accumulateAndGet(salesAmount, BigDecimal::add);
+        }
+    }
+
+    /**
+     * 累加新用户
+     */
+    public void recordNewUser() {
+        newUsers.increment();
+    }
+
+    /**
+     * 合并本周期的增量并推送
+     */
+    @Scheduled(fixedDelayString = "${shop.dashboard.push-interval-ms:1000}")
+    public void flush() {
+        long orders = newOrders.sumThenReset();
+        long paid = paidOrders.sumThenReset();
+        long users = newUsers.sumThenReset();
+        BigDecimal sales = salesIncrement.getAndSet(BigDecimal.ZERO);
+        if (orders == 0 && paid == 0 && users == 0 && sales.signum() == 0) {
+            return;
+        }
+        DashboardDeltaMessageDTO message = DashboardDeltaMessageDTO.builder()
+                .newOrders(orders)
+                .paidOrders(paid)
+                .salesIncrement(sales)
+                .newUsers(users)
+                .timestamp(System.currentTimeMillis())
+                .build();
+        try {
+            messagingTemplate.convertAndSend(TOPIC, message);
+            pushedMessages.increment();
+        } catch (Exception e) {
+            // 推送失败不重试：客户端可通过统计接口重新加载
+            log.error("仪表板增量推送失败: {}", message, e);
+        }
+    }
+
+    /**
+     * 统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pushedMessages", pushedMessages.sum());
+        stats.put("pendingOrders", newOrders.sum());
+        stats.put("pendingUsers", newUsers.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.springboot.service.event;
+
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.DailyStats;
+import org.example.springboot.service.dashboard.DailyStatsService;
+import org.example.springboot.service.dashboard.DashboardPushService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 仪表板统计更新：按下单、支付、关闭事件累加订单统计汇总，并把增量交给实时推送
+ * @author system
+ */
+@Component
+public class DashboardOrderEventListener implements OrderEventListener {
+
+    @Resource
+    private DailyStatsService dailyStatsService;
+
+    @Resource
+    private DashboardPushService dashboardPushService;
+
+    @Override
+    public String getName() {
+        return "dashboard";
+    }
+
+    @Override
+    public void onEvents(List<OrderEvent> events) {
+        DailyStats delta = dailyStatsService.applyEvents(events);
+        if (delta != null) {
+            dashboardPushService.recordOrderDelta(delta.getOrderCount(), delta.getPaidCount(), delta.getSalesAmount());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.springboot.service.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.springboot.enums.OrderEventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 订单事件
+ * 除事件ID与发生时间外的字段以JSON保存在发件箱的payload列中
+ * @author system
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+
+    /**
+     * 发件箱ID，同一事件重复投递时不变，监听器可据此去重
+     */
+    @JsonIgnore
+    private Long eventId;
+
+    /**
+     * 事件写入时间
+     */
+    @JsonIgnore
+    private LocalDateTime occurredAt;
+
+    private OrderEventType type;
+
+    private Long orderId;
+
+    private Long userId;
+
+    private String orderNo;
+
+    /**
+     * 变更后的订单状态
+     */
+    private Integer status;
+
+    /**
+     * 变更前的订单状态（创建事件为null）
+     */
+    private Integer previousStatus;
+
+    private BigDecimal payAmount;
+
+    /**
+     * 订单创建时间
+     */
+    private LocalDateTime orderCreateTime;
+
+    /**
+     * 订单商品（创建、支付事件携带）
+     */
+    private List<Item> items;
+
+    /**
+     * 订单商品行
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        private String productId;
+
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.springboot.service.event;
+
+import java.util.List;
+
+/**
+ * 订单事件监听器
+ *
+ * 分发器按批次投递，每个监听器在有界线程池中独立执行一次；
+ * 投递语义为至少一次：任一监听器失败时整批事件稍后重新投递给所有监听器，实现需能容忍重复事件
+ *
+ * @author system
+ */
+public interface OrderEventListener {
+
+    /**
+     * 监听器名称（用于日志与统计）
+     */
+    String getName();
+
+    /**
+     * 处理一批事件（按写入顺序排列），抛出异常表示投递失败
+     * @param events 事件
+     */
+    void onEvents(List<OrderEvent> events);
+}
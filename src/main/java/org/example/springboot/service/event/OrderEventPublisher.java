@@ -0,0 +1,76 @@
+package org.example.springboot.service.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.entity.ShopOrderOutbox;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.ShopOrderOutboxMapper;
+import org.example.springboot.util.TransactionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 订单事件发布：在订单状态变更所在的事务中写入发件箱，事务回滚时事件一并回滚，
+ * 提交后唤醒分发器尽快投递
+ * @author system
+ */
+@Slf4j
+@Service
+public class OrderEventPublisher {
+
+    @Resource
+    private ShopOrderOutboxMapper shopOrderOutboxMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private OrderOutboxDispatcher orderOutboxDispatcher;
+
+    /**
+     * 发布单个事件（必须在订单状态变更的事务中调用）
+     * @param event 事件
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OrderEvent event) {
+        publishAll(Collections.singletonList(event));
+    }
+
+    /**
+     * 批量发布事件，一条语句写入发件箱（必须在订单状态变更的事务中调用）
+     * @param events 事件
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(List<OrderEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<ShopOrderOutbox> rows = new ArrayList<>(events.size());
+        for (OrderEvent event : events) {
+            rows.add(ShopOrderOutbox.builder()
+                    .eventType(event.getType().name())
+                    .orderId(event.getOrderId())
+                    .userId(event.getUserId())
+                    .payload(toJson(event))
+                    .build());
+        }
+        shopOrderOutboxMapper.insertBatch(rows);
+        TransactionUtils.afterCommit(orderOutboxDispatcher::wakeUp);
+    }
+
+    private String toJson(OrderEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.error("订单事件序列化失败，订单ID: {}, 类型: {}", event.getOrderId(), event.getType(), e);
+            throw new ServiceException("订单事件记录失败，请稍后重试");
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.example.springboot.service.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.entity.ShopOrderOutbox;
+import org.example.springboot.mapper.ShopOrderOutboxMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 订单事件发件箱分发器
+ *
+ * 1. 定时轮询，事务提交后也会被唤醒立即投递；每次按ID顺序取一批到期事件
+ * 2. 每个监听器收到整批事件，在有界线程池中并行执行，队列满时由分发线程自己执行（背压）
+ * 3. 全部监听器成功后整批标记已投递；任一失败或超时则整批推迟重投（至少一次，按失败次数退避）
+ * 4. 记录投递量、失败次数、投递延迟（事件写入到投递完成）与积压事件的最大等待时间
+ *
+ * 单实例分发：多实例部署时各实例都会投递同一事件，依赖监听器容忍重复事件
+ *
+ * @author system
+ */
+@Slf4j
+@Component
+public class OrderOutboxDispatcher {
+
+    @Resource
+    private ShopOrderOutboxMapper shopOrderOutboxMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private List<OrderEventListener> listeners;
+
+    @Value("${shop.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${shop.outbox.listener-threads:4}")
+    private int listenerThreads;
+
+    @Value("${shop.outbox.listener-queue-capacity:64}")
+    private int listenerQueueCapacity;
+
+    /**
+     * 单批事件在一个监听器中的最长执行时间
+     */
+    @Value("${shop.outbox.listener-timeout-ms:10000}")
+    private long listenerTimeoutMillis;
+
+    /**
+     * 失败重投的基础退避时间，按失败次数线性增长，最长10分钟
+     */
+    @Value("${shop.outbox.retry-backoff-seconds:5}")
+    private long retryBackoffSeconds;
+
+    @Value("${shop.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private ThreadPoolExecutor listenerExecutor;
+
+    private ExecutorService wakeUpExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder failedBatchCount = new LongAdder();
+    private final LongAdder totalLagMillis = new LongAdder();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final Map<String, LongAdder> listenerFailures = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        listenerExecutor = new ThreadPoolExecutor(listenerThreads, listenerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(listenerQueueCapacity), r -> {
+            Thread thread = new Thread(r, "order-event-listener");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        wakeUpExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "order-outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (OrderEventListener listener : listeners) {
+            listenerFailures.put(listener.getName(), new LongAdder());
+        }
+        log.info("订单事件分发器初始化: 监听器={}, 批大小={}, 线程数={}",
+                listenerFailures.keySet(), batchSize, listenerThreads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        wakeUpExecutor.shutdownNow();
+        listenerExecutor.shutdown();
+    }
+
+    /**
+     * 唤醒分发（事务提交后调用），已有待执行的唤醒时合并
+     */
+    public void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            wakeUpExecutor.execute(() -> {
+                wakeUpPending.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    /**
+     * 定时轮询：兜底投递唤醒遗漏、失败重投与重启前未投递的事件
+     */
+    @Scheduled(fixedDelayString = "${shop.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int size;
+            do {
+                size = dispatchBatch();
+            } while (size == batchSize);
+        } catch (Exception e) {
+            log.error("订单事件分发失败", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 定时清理已投递的历史事件
+     */
+    @Scheduled(cron = "${shop.outbox.cleanup-cron:0 0 4 * * ?}")
+    public void cleanup() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        int deleted;
+        int total = 0;
+        do {
+            deleted = shopOrderOutboxMapper.deleteDispatchedBefore(before, 1000);
+            total += deleted;
+        } while (deleted == 1000);
+        log.info("清理已投递订单事件: {}条", total);
+    }
+
+    /**
+     * 分发统计：投递量、失败次数、投递延迟与积压
+     */
+    public Map<String, Object> stats() {
+        long dispatched = dispatchedCount.sum();
+        LocalDateTime oldestPending = shopOrderOutboxMapper.selectOldestPendingTime();
+        Map<String, Long> failures = new LinkedHashMap<>();
+        listenerFailures.forEach((name, count) -> failures.put(name, count.sum()));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dispatchedCount", dispatched);
+        stats.put("failedBatchCount", failedBatchCount.sum());
+        stats.put("listenerFailures", failures);
+        stats.put("avgLagMillis", dispatched == 0 ? 0 : totalLagMillis.sum() / dispatched);
+        stats.put("maxLagMillis", maxLagMillis.get());
+        stats.put("lastBatchSize", lastBatchSize.get());
+        stats.put("oldestPendingAgeMillis", oldestPending == null
+                ? 0 : Duration.between(oldestPending, LocalDateTime.now()).toMillis());
+        stats.put("listenerQueueSize", listenerExecutor.getQueue().size());
+        return stats;
+    }
+
+    /**
+     * 投递一批事件
+     * @return 本批事件数
+     */
+    private int dispatchBatch() {
+        List<ShopOrderOutbox> rows = shopOrderOutboxMapper.selectDue(batchSize);
+        lastBatchSize.set(rows.size());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<OrderEvent> events = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<ShopOrderOutbox> parsedRows = new ArrayList<>(rows.size());
+        List<Long> malformedIds = new ArrayList<>();
+        int maxAttempts = 0;
+        for (ShopOrderOutbox row : rows) {
+            OrderEvent event = toEvent(row);
+            if (event == null) {
+                malformedIds.add(row.getId());
+                continue;
+            }
+            ids.add(row.getId());
+            parsedRows.add(row);
+            maxAttempts = Math.max(maxAttempts, row.getAttempts());
+            events.add(event);
+        }
+        if (!malformedIds.isEmpty()) {
+            // 无法解析的事件推迟到最长退避时间，避免阻塞后续事件
+            shopOrderOutboxMapper.markFailed(malformedIds, 600);
+        }
+        if (events.isEmpty()) {
+            return rows.size();
+        }
+        List<OrderEvent> readOnlyEvents = Collections.unmodifiableList(events);
+
+        List<Future<?>> futures = new ArrayList<>(listeners.size());
+        for (OrderEventListener listener : listeners) {
+            futures.add(listenerExecutor.submit(() -> listener.onEvents(readOnlyEvents)));
+        }
+        boolean success = true;
+        for (int i = 0; i < futures.size(); i++) {
+            String name = listeners.get(i).getName();
+            try {
+                futures.get(i).get(listenerTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                success = false;
+            } catch (TimeoutException e) {
+                // 超时的执行取消（中断），避免与重投的同一批事件并发执行
+                futures.get(i).cancel(true);
+                success = false;
+                listenerFailures.get(name).increment();
+                log.error("订单事件监听器执行超时: {}, 事件ID: {}-{}", name, ids.get(0), ids.get(ids.size() - 1));
+            } catch (Exception e) {
+                success = false;
+                listenerFailures.get(name).increment();
+                log.error("订单事件监听器执行失败: {}, 事件ID: {}-{}", name, ids.get(0), ids.get(ids.size() - 1), e);
+            }
+        }
+
+        if (!success) {
+            failedBatchCount.increment();
+            long delay = Math.min(retryBackoffSeconds * (maxAttempts + 1), 600);
+            shopOrderOutboxMapper.markFailed(ids, delay);
+            log.warn("订单事件投递失败，{}秒后重投: 事件数={}, 已失败次数={}", delay, ids.size(), maxAttempts + 1);
+            return 0;
+        }
+        shopOrderOutboxMapper.markDispatched(ids);
+        recordLag(parsedRows);
+        return rows.size();
+    }
+
+    private void recordLag(List<ShopOrderOutbox> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        for (ShopOrderOutbox row : rows) {
+            long lag = Math.max(0, Duration.between(row.getCreateTime(), now).toMillis());
+            totalLagMillis.add(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+        dispatchedCount.add(rows.size());
+    }
+
+    /**
+     * 解析事件内容，解析失败返回null
+     */
+    private OrderEvent toEvent(ShopOrderOutbox row) {
+        try {
+            OrderEvent event = objectMapper.readValue(row.getPayload(), OrderEvent.class);
+            event.setEventId(row.getId());
+            event.setOccurredAt(row.getCreateTime());
+            return event;
+        } catch (Exception e) {
+            log.error("订单事件解析失败，事件ID: {}", row.getId(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.springboot.service.event;
+
+import jakarta.annotation.Resource;
+import org.example.springboot.enums.OrderEventType;
+import org.example.springboot.service.ProductRecommendService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 推荐模型更新：订单支付后把本单商品计入用户购买记录
+ * @author system
+ */
+@Component
+public class RecommendationOrderEventListener implements OrderEventListener {
+
+    @Resource
+    private ProductRecommendService productRecommendService;
+
+    @Override
+    public String getName() {
+        return "recommendation";
+    }
+
+    @Override
+    public void onEvents(List<OrderEvent> events) {
+        for (OrderEvent event : events) {
+            if (event.getType() != OrderEventType.PAID || event.getItems() == null) {
+                continue;
+            }
+            List<String> productIds = event.getItems().stream()
+                    .map(OrderEvent.Item::getProductId)
+                    .collect(Collectors.toList());
+            productRecommendService.recordPurchase(event.getUserId(), productIds);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.springboot.service.order;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 哈希时间轮
+ *
+ * 固定数量的槽位按tick轮转，定时任务按到期tick落入对应槽位，超过一圈的任务记录剩余圈数。
+ * 新增、取消都是O(1)，每个tick只检查当前槽位，不随任务总量扫描。
+ *
+ * 线程模型：任意线程提交任务到无锁队列，由单个工作线程在每个tick开始时搬入槽位；
+ * 槽位只被工作线程访问，无需加锁。取消只打标记，由工作线程在经过槽位时惰性移除。
+ *
+ * @author system
+ */
+@Slf4j
+final class HashedTimingWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Timeout>> buckets;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Consumer<Timeout> handler;
+    private final Thread worker;
+
+    private volatile boolean running;
+    private long startTime;
+    private long tick;
+
+    /**
+     * @param tickMillis 每个tick的毫秒数（到期精度）
+     * @param wheelSize 槽位数，向上取整为2的幂
+     * @param name 工作线程名
+     * @param handler 到期回调（参数为到期的任务句柄），在工作线程中执行，不应阻塞
+     */
+    HashedTimingWheel(long tickMillis, int wheelSize, String name, Consumer<Timeout> handler) {
+        int slots = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickMillis = Math.max(tickMillis, 1);
+        this.mask = slots - 1;
+        this.buckets = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.handler = handler;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+    }
+
+    void start() {
+        startTime = System.currentTimeMillis();
+        running = true;
+        worker.start();
+    }
+
+    void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /**
+     * 登记定时任务
+     * @param id 业务ID
+     * @param deadlineMillis 到期时间（epoch毫秒），已过期的任务在下一个tick触发
+     * @return 可取消的句柄
+     */
+    Timeout schedule(long id, long deadlineMillis) {
+        Timeout timeout = new Timeout(id, deadlineMillis);
+        incoming.add(timeout);
+        size.incrementAndGet();
+        return timeout;
+    }
+
+    /**
+     * 尚未到期且未取消的任务数（近似值）
+     */
+    int size() {
+        return size.get();
+    }
+
+    private void run() {
+        while (running) {
+            long tickDeadline = startTime + (tick + 1) * tickMillis;
+            long sleepMillis = tickDeadline - System.currentTimeMillis();
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            transferIncoming();
+            expireBucket(buckets.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    /**
+     * 把新提交的任务放入对应槽位
+     */
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) {
+                size.decrementAndGet();
+                continue;
+            }
+            long targetTick = Math.max((timeout.deadline - startTime) / tickMillis, tick);
+            timeout.remainingRounds = (targetTick - tick) / buckets.size();
+            buckets.get((int) (targetTick & mask)).add(timeout);
+        }
+    }
+
+    /**
+     * 处理当前槽位：触发到期任务，移除已取消任务，其余任务剩余圈数减一
+     */
+    private void expireBucket(List<Timeout> bucket) {
+        int kept = 0;
+        for (Timeout timeout : bucket) {
+            if (timeout.cancelled) {
+                size.decrementAndGet();
+            } else if (timeout.remainingRounds <= 0) {
+                size.decrementAndGet();
+                try {
+                    handler.accept(timeout);
+                } catch (Exception e) {
+                    log.error("时间轮任务执行失败，ID: {}", timeout.id, e);
+                }
+            } else {
+                timeout.remainingRounds--;
+                bucket.set(kept++, timeout);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    static final class Timeout {
+
+        private final long id;
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(long id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+
+        long id() {
+            return id;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package org.example.springboot.service.order;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.common.cache.LocalCache;
+import org.example.springboot.exception.BusinessException;
+import org.example.springboot.exception.ServiceException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 接口幂等服务（Idempotency-Key）
+ *
+ * 1. 客户端在重试时携带相同的幂等键，首次执行成功后结果保存一段时间，重放请求直接返回原结果，不再执行业务
+ * 2. 同一幂等键的并发请求合并到正在执行的那一次，等待其结果
+ * 3. 执行失败不保存结果，客户端可用同一幂等键重试
+ * 4. 幂等键按业务范围和用户隔离；可选开启Redis，使多实例共享结果并在实例间互斥
+ * 5. 结果与请求内容摘要一起保存，同一幂等键携带不同请求内容时拒绝，不返回其他请求的结果
+ * 6. 跨实例执行锁带持有者标识，只由持有者通过比较后删除的脚本释放，锁过期后不会误删其他实例的锁
+ *
+ * @author system
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    /**
+     * 幂等键请求头
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final String REDIS_RESULT_PREFIX = "idempotency:result:";
+    private static final String REDIS_LOCK_PREFIX = "idempotency:lock:";
+
+    /**
+     * 本地缓存中表示"执行成功但返回null"的占位值
+     */
+    private static final Object NULL_RESULT = new Object();
+
+    /**
+     * 比较持有者后释放锁
+     */
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Value("${shop.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${shop.idempotency.max-size:100000}")
+    private int maxSize;
+
+    @Value("${shop.idempotency.redis-enabled:false}")
+    private boolean redisEnabled;
+
+    /**
+     * 跨实例执行锁的存活时间，应大于单次业务执行的最长耗时
+     */
+    @Value("${shop.idempotency.lock-seconds:30}")
+    private long lockSeconds;
+
+    private LocalCache<String, StoredResult> results;
+
+    private StringRedisTemplate redisTemplate;
+
+    /**
+     * 正在执行中的请求
+     */
+    private final ConcurrentHashMap<String, Execution> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        results = new LocalCache<>("idempotency", maxSize, ttlSeconds * 1000);
+        if (redisEnabled) {
+            redisTemplate = redisTemplateProvider.getIfAvailable();
+        }
+        log.info("接口幂等服务初始化: ttl={}s, maxSize={}, redis={}", ttlSeconds, maxSize, redisTemplate != null);
+    }
+
+    /**
+     * 以幂等方式执行业务
+     * @param scope 业务范围（如 order:create、order:pay:订单ID）
+     * @param userId 当前用户ID
+     * @param key 客户端提供的幂等键，为空时直接执行
+     * @param request 请求内容，与幂等键一起校验，同一幂等键的请求内容必须一致
+     * @param type 结果类型（从Redis反序列化时使用）
+     * @param action 业务逻辑
+     * @return 首次执行的结果
+     */
+    public <T> T execute(String scope, Long userId, String key, Object request, Class<T> type, Supplier<T> action) {
+        if (!StringUtils.hasText(key)) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("幂等键长度不能超过" + MAX_KEY_LENGTH + "个字符");
+        }
+        String fullKey = scope + ":" + userId + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        StoredResult stored = lookup(fullKey, type);
+        if (stored != null) {
+            log.info("幂等请求重放，返回首次结果: {}", fullKey);
+            return unwrap(checkFingerprint(stored, fingerprint), type);
+        }
+
+        Execution execution = new Execution(fingerprint);
+        Execution existing = inFlight.putIfAbsent(fullKey, execution);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new BusinessException("幂等键已用于其他请求，请更换幂等键");
+            }
+            log.info("幂等请求正在执行，等待其结果: {}", fullKey);
+            return unwrap(await(existing.future), type);
+        }
+        try {
+            // 加入执行队列前可能刚好有一次执行完成
+            stored = lookup(fullKey, type);
+            Object result = stored != null
+                    ? checkFingerprint(stored, fingerprint) : executeOnce(fullKey, fingerprint, action);
+            execution.future.complete(result);
+            return unwrap(result, type);
+        } catch (RuntimeException e) {
+            execution.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(fullKey, execution);
+        }
+    }
+
+    /**
+     * 统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(results.stats());
+        stats.put("inFlight", inFlight.size());
+        stats.put("redisEnabled", redisTemplate != null);
+        return stats;
+    }
+
+    /**
+     * 执行业务并保存结果；开启Redis时先获取跨实例执行锁
+     */
+    private Object executeOnce(String fullKey, String fingerprint, Supplier<?> action) {
+        if (redisTemplate == null) {
+            Object result = wrap(action.get());
+            results.put(fullKey, new StoredResult(fingerprint, result));
+            return result;
+        }
+        String lockKey = REDIS_LOCK_PREFIX + fullKey;
+        String owner = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(lockKey, owner, Duration.ofSeconds(lockSeconds));
+        if (!Boolean.TRUE.equals(locked)) {
+            throw new BusinessException("请求正在处理中，请勿重复提交");
+        }
+        try {
+            Object value = action.get();
+            Object result = wrap(value);
+            results.put(fullKey, new StoredResult(fingerprint, result));
+            saveToRedis(fullKey, fingerprint, value);
+            return result;
+        } finally {
+            releaseLock(lockKey, owner);
+        }
+    }
+
+    /**
+     * 释放跨实例执行锁：只有仍由本次执行持有时才删除（锁可能已过期并被其他实例获取）
+     */
+    private void releaseLock(String lockKey, String owner) {
+        try {
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, Collections.singletonList(lockKey), owner);
+        } catch (Exception e) {
+            log.error("释放幂等执行锁失败，等待锁自动过期: {}", lockKey, e);
+        }
+    }
+
+    /**
+     * 结果与请求摘要写入Redis；失败时业务已成功，仅记录日志：本实例仍可重放，其他实例依赖客户端重试时的执行锁
+     */
+    private void saveToRedis(String fullKey, String fingerprint, Object value) {
+        try {
+            ObjectNode node = objectMapper.createObjectNode();
+            node.put("fingerprint", fingerprint);
+            node.set("result", objectMapper.valueToTree(value));
+            redisTemplate.opsForValue().set(REDIS_RESULT_PREFIX + fullKey, objectMapper.writeValueAsString(node),
+                    Duration.ofSeconds(ttlSeconds));
+        } catch (Exception e) {
+            log.error("幂等结果写入Redis失败: {}", fullKey, e);
+        }
+    }
+
+    /**
+     * 查找已保存的结果：先查本地，再查Redis
+     */
+    private StoredResult lookup(String fullKey, Class<?> type) {
+        StoredResult local = results.getIfPresent(fullKey);
+        if (local != null || redisTemplate == null) {
+            return local;
+        }
+        String json = redisTemplate.opsForValue().get(REDIS_RESULT_PREFIX + fullKey);
+        if (json == null) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(json);
+            StoredResult stored = new StoredResult(node.path("fingerprint").asText(),
+                    wrap(objectMapper.treeToValue(node.get("result"), type)));
+            results.put(fullKey, stored);
+            return stored;
+        } catch (Exception e) {
+            log.error("幂等结果反序列化失败: {}", fullKey, e);
+            throw new ServiceException("请求处理失败，请稍后重试");
+        }
+    }
+
+    /**
+     * 校验请求内容与首次请求一致
+     * @return 首次执行的结果
+     */
+    private static Object checkFingerprint(StoredResult stored, String fingerprint) {
+        if (!Objects.equals(stored.fingerprint, fingerprint)) {
+            throw new BusinessException("幂等键已用于其他请求，请更换幂等键");
+        }
+        return stored.result;
+    }
+
+    /**
+     * 请求内容摘要（JSON序列化后的SHA-256）
+     */
+    private String fingerprint(Object request) {
+        try {
+            byte[] body = request == null ? new byte[0] : objectMapper.writeValueAsBytes(request);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(SHA256.get().digest(body));
+        } catch (Exception e) {
+            log.error("计算请求摘要失败", e);
+            throw new ServiceException("请求处理失败，请稍后重试");
+        }
+    }
+
+    private Object await(CompletableFuture<Object> execution) {
+        try {
+            return execution.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Object wrap(Object value) {
+        return value == null ? NULL_RESULT : value;
+    }
+
+    private static <T> T unwrap(Object stored, Class<T> type) {
+        return stored == NULL_RESULT ? null : type.cast(stored);
+    }
+
+    /**
+     * 已保存的结果及其请求摘要
+     */
+    private static final class StoredResult {
+
+        private final String fingerprint;
+        private final Object result;
+
+        private StoredResult(String fingerprint, Object result) {
+            this.fingerprint = fingerprint;
+            this.result = result;
+        }
+    }
+
+    /**
+     * 正在执行的请求及其请求摘要
+     */
+    private static final class Execution {
+
+        private final String fingerprint;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Execution(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.springboot.service.order;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.common.cache.LocalCache;
+import org.example.springboot.entity.ShopOrder;
+import org.example.springboot.entity.ShopOrderItem;
+import org.example.springboot.enums.OrderNoMatchMode;
+import org.example.springboot.enums.OrderStatus;
+import org.example.springboot.mapper.ShopOrderArchiveMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 订单归档服务（冷热分离）
+ *
+ * 1. 定时把创建时间早于N个月的已完成、已关闭订单及其明细分批迁移到归档表，
+ *    每批在一个事务内复制后删除，按订单ID键集分页推进，不一次性加载全部订单
+ * 2. 在线表只保留近期订单和仍在流转中的订单，分页查询先查在线表，
+ *    只有当前页落在归档订单的创建时间范围内时才读取归档表，与在线订单按创建时间归并
+ * 3. 归档表只在归档任务中变化，归档订单数与最晚创建时间按查询条件缓存，归档完成后整体失效
+ *
+ * @author system
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    /**
+     * 可归档的订单状态（终态）
+     */
+    public static final List<Integer> ARCHIVABLE_STATUSES = Arrays.asList(
+            OrderStatus.COMPLETED.getCode(), OrderStatus.CLOSED.getCode());
+
+    @Resource
+    private ShopOrderArchiveMapper shopOrderArchiveMapper;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${shop.archive.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 归档创建时间早于多少个月的订单
+     */
+    @Value("${shop.archive.months:6}")
+    private int months;
+
+    @Value("${shop.archive.batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    private LocalCache<String, Long> countCache;
+
+    private LocalCache<String, LocalDateTime> latestCreateTimeCache;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        countCache = new LocalCache<>("orderArchiveCount", 10000, 3600_000L);
+        latestCreateTimeCache = new LocalCache<>("orderArchiveLatestCreateTime", 10000, 3600_000L);
+    }
+
+    /**
+     * 定时归档
+     */
+    @Scheduled(cron = "${shop.archive.cron:0 0 2 * * ?}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * 执行一次归档
+     * @return 归档的订单数，已有归档在运行时返回-1
+     */
+    public int archive() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("订单归档任务正在运行，跳过本次触发");
+            return -1;
+        }
+        long start = System.currentTimeMillis();
+        LocalDateTime before = LocalDateTime.now().minusMonths(months);
+        int total = 0;
+        try {
+            long afterId = 0;
+            List<Long> orderIds;
+            do {
+                orderIds = shopOrderArchiveMapper.selectArchivableIds(ARCHIVABLE_STATUSES, before, afterId, batchSize);
+                if (orderIds.isEmpty()) {
+                    break;
+                }
+                List<Long> batch = orderIds;
+                Integer moved = transactionTemplate.execute(status -> archiveBatch(batch));
+                total += moved == null ? 0 : moved;
+                afterId = orderIds.get(orderIds.size() - 1);
+            } while (orderIds.size() == batchSize);
+            log.info("订单归档完成: 截止时间={}, 归档订单数={}, 耗时={}ms", before, total, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("订单归档失败，已归档订单数={}", total, e);
+        } finally {
+            if (total > 0) {
+                countCache.invalidateAll();
+                latestCreateTimeCache.invalidateAll();
+            }
+            running.set(false);
+        }
+        return total;
+    }
+
+    /**
+     * 当前查询条件是否可能命中归档订单
+     * @param status 状态条件，为null时不限
+     */
+    public boolean mayContain(Integer status) {
+        return status == null || ARCHIVABLE_STATUSES.contains(status);
+    }
+
+    /**
+     * 统计归档订单数（带缓存）
+     */
+    public long countOrders(Long userId, Integer status) {
+        return countCache.get(userId + ":" + status, k -> shopOrderArchiveMapper.countOrders(userId, status));
+    }
+
+    /**
+     * 归档订单中最晚的创建时间（带缓存），在线表中晚于该时间的订单都排在归档订单之前
+     * @return 创建时间，没有符合条件的归档订单时为null
+     */
+    public LocalDateTime latestCreateTime(Long userId, Integer status) {
+        return latestCreateTimeCache.get(userId + ":" + status,
+                k -> shopOrderArchiveMapper.selectLatestCreateTime(userId, status));
+    }
+
+    /**
+     * 分页查询归档订单，按创建时间倒序
+     */
+    public List<ShopOrder> selectOrders(Long userId, Integer status, long offset, long limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        return shopOrderArchiveMapper.selectOrders(userId, status, offset, limit);
+    }
+
+    /**
+     * 按订单号查找归档订单
+     * @param mode 查找方式（已解析，不为AUTO）
+     */
+    public List<ShopOrder> searchOrders(Integer status, OrderNoMatchMode mode, String orderNo, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        String reversedOrderNo = mode == OrderNoMatchMode.SUFFIX ? OrderNoMatchMode.reverseForSuffix(orderNo) : null;
+        return shopOrderArchiveMapper.searchOrders(status, mode.name(), orderNo, reversedOrderNo, limit);
+    }
+
+    /**
+     * 按ID查询归档订单
+     */
+    public ShopOrder selectOrderById(Long orderId) {
+        return shopOrderArchiveMapper.selectOrderById(orderId);
+    }
+
+    /**
+     * 批量查询归档订单明细
+     * @return 订单ID -> 明细
+     */
+    public Map<Long, List<ShopOrderItem>> selectItemsMap(Collection<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        return shopOrderArchiveMapper.selectItemsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(ShopOrderItem::getOrderId));
+    }
+
+    /**
+     * 归档一批订单：先复制订单和明细，再删除在线表中的明细和订单
+     */
+    private int archiveBatch(List<Long> orderIds) {
+        shopOrderArchiveMapper.copyOrders(orderIds);
+        shopOrderArchiveMapper.copyOrderItems(orderIds);
+        shopOrderArchiveMapper.deleteOrderItems(orderIds);
+        return shopOrderArchiveMapper.deleteOrders(orderIds, ARCHIVABLE_STATUSES);
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.springboot.service.order;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 订单号生成器（Snowflake结构）
+ *
+ * 64位长整型：41位毫秒时间戳（相对自定义纪元）+ 10位节点ID + 12位序列号，
+ * 以十进制字符串作为订单号，同一节点内严格递增、不依赖数据库判重。
+ *
+ * 时间戳与序列号打包在一个AtomicLong中，通过CAS无锁推进：
+ * 同一毫秒内序列号用尽或时钟回拨时，逻辑时钟继续向前借用，不阻塞、不重复。
+ *
+ * @author system
+ */
+@Slf4j
+@Component
+public class OrderNoGenerator {
+
+    /**
+     * 自定义纪元：2024-01-01 00:00:00 UTC
+     */
+    private static final long EPOCH = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    /**
+     * 节点ID，多实例部署时每个实例必须配置不同的值（0-1023）
+     */
+    @Value("${shop.order-no.node-id:0}")
+    private long nodeId;
+
+    private long nodeBits;
+
+    /**
+     * 毫秒时钟
+     */
+    private final LongSupplier clock;
+
+    /**
+     * 高位为上一次使用的毫秒时间戳，低12位为该毫秒内的序列号
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public OrderNoGenerator() {
+        this.clock = System::currentTimeMillis;
+    }
+
+    /**
+     * 指定节点ID与时钟（用于测试序列号溢出、时钟回拨）
+     */
+    OrderNoGenerator(long nodeId, LongSupplier clock) {
+        this.nodeId = nodeId;
+        this.clock = clock;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("订单号节点ID必须在0-" + MAX_NODE_ID + "之间: " + nodeId);
+        }
+        nodeBits = nodeId << SEQUENCE_BITS;
+        log.info("订单号生成器初始化: nodeId={}", nodeId);
+    }
+
+    /**
+     * 生成订单号
+     * @return 十进制订单号
+     */
+    public String nextOrderNo() {
+        return Long.toString(nextId());
+    }
+
+    /**
+     * 生成唯一ID
+     */
+    public long nextId() {
+        long floor = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+        long current;
+        long next;
+        do {
+            current = state.get();
+            // 序列号溢出时自然进位到时间戳部分；时钟回拨时沿用上一次的逻辑时钟
+            next = Math.max(current + 1, floor);
+        } while (!state.compareAndSet(current, next));
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+}
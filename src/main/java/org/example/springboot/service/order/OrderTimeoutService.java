@@ -0,0 +1,194 @@
+package org.example.springboot.service.order;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.entity.ShopOrder;
+import org.example.springboot.enums.OrderStatus;
+import org.example.springboot.mapper.ShopOrderMapper;
+import org.example.springboot.service.OrderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 未支付订单超时关闭
+ *
+ * 1. 订单创建提交后登记到时间轮，到期时间 = 创建时间 + 支付超时时长
+ * 2. 支付或取消后撤销登记；即使撤销前已触发，关闭操作也以"仍为待支付"为条件，不会误关
+ * 3. 到期后在独立线程中关闭订单并恢复库存，不阻塞时间轮；关闭失败（数据库异常、锁等待超时等）时
+ *    按失败次数指数退避后重新登记，直到关闭成功或订单已不再是待支付
+ * 4. 应用启动时只加载仍为待支付的订单（按状态索引查询），已超时的在第一个tick关闭
+ *
+ * 多实例部署时各实例只负责本实例创建的订单；重启后每个实例都会加载全部待支付订单，
+ * 重复触发由条件更新保证只关闭一次
+ *
+ * @author system
+ */
+@Slf4j
+@Service
+public class OrderTimeoutService {
+
+    @Resource
+    private ShopOrderMapper shopOrderMapper;
+
+    @Lazy
+    @Resource
+    private OrderService orderService;
+
+    /**
+     * 支付超时时长（分钟）
+     */
+    @Value("${shop.order.pay-timeout-minutes:30}")
+    private long payTimeoutMinutes;
+
+    @Value("${shop.order.timeout-tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${shop.order.timeout-wheel-size:512}")
+    private int wheelSize;
+
+    /**
+     * 关闭失败后的基础重试间隔，按失败次数指数增长，最长10分钟
+     */
+    @Value("${shop.order.timeout-retry-backoff-seconds:5}")
+    private long retryBackoffSeconds;
+
+    private HashedTimingWheel wheel;
+
+    private ExecutorService closeExecutor;
+
+    /**
+     * 订单ID -> 时间轮句柄（用于支付、取消后撤销）
+     */
+    private final ConcurrentHashMap<Long, HashedTimingWheel.Timeout> timeouts = new ConcurrentHashMap<>();
+
+    /**
+     * 订单ID -> 关闭连续失败次数
+     */
+    private final ConcurrentHashMap<Long, Integer> closeFailures = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        closeExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "order-timeout-close");
+            thread.setDaemon(true);
+            return thread;
+        });
+        wheel = new HashedTimingWheel(tickMillis, wheelSize, "order-timeout-wheel", this::onExpired);
+        wheel.start();
+        log.info("订单超时关闭初始化: 超时={}分钟, tick={}ms, 槽位={}", payTimeoutMinutes, tickMillis, wheelSize);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        wheel.stop();
+        closeExecutor.shutdown();
+        try {
+            closeExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 应用启动后加载待支付订单
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        try {
+            LambdaQueryWrapper<ShopOrder> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(ShopOrder::getId, ShopOrder::getCreateTime)
+                    .eq(ShopOrder::getStatus, OrderStatus.PENDING.getCode());
+            List<ShopOrder> orders = shopOrderMapper.selectList(wrapper);
+            for (ShopOrder order : orders) {
+                register(order.getId(), order.getCreateTime());
+            }
+            log.info("订单超时关闭恢复完成: 待支付订单数={}", orders.size());
+        } catch (Exception e) {
+            log.error("订单超时关闭恢复失败", e);
+        }
+    }
+
+    /**
+     * 登记订单的支付超时
+     * @param orderId 订单ID
+     * @param createTime 订单创建时间
+     */
+    public void register(Long orderId, LocalDateTime createTime) {
+        LocalDateTime base = createTime != null ? createTime : LocalDateTime.now();
+        long deadline = base.plusMinutes(payTimeoutMinutes).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        HashedTimingWheel.Timeout previous = timeouts.put(orderId, wheel.schedule(orderId, deadline));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * 撤销订单的支付超时（订单已支付或已取消）
+     * @param orderId 订单ID
+     */
+    public void cancel(Long orderId) {
+        HashedTimingWheel.Timeout timeout = timeouts.remove(orderId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        closeFailures.remove(orderId);
+    }
+
+    /**
+     * 统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("payTimeoutMinutes", payTimeoutMinutes);
+        stats.put("registeredOrders", timeouts.size());
+        stats.put("retryingOrders", closeFailures.size());
+        stats.put("wheelSize", wheel.size());
+        return stats;
+    }
+
+    /**
+     * 时间轮到期回调：转交关闭线程执行，避免数据库操作阻塞时间轮
+     * 只移除本次到期的句柄，不影响期间重新登记的句柄
+     */
+    private void onExpired(HashedTimingWheel.Timeout timeout) {
+        long orderId = timeout.id();
+        timeouts.remove(orderId, timeout);
+        closeExecutor.execute(() -> {
+            try {
+                orderService.closeExpiredOrder(orderId);
+                closeFailures.remove(orderId);
+            } catch (Exception e) {
+                scheduleRetry(orderId, e);
+            }
+        });
+    }
+
+    /**
+     * 关闭失败后退避重新登记；期间已有新的登记（或已撤销后又登记）时以新的为准
+     */
+    private void scheduleRetry(long orderId, Exception cause) {
+        int failures = closeFailures.merge(orderId, 1, Integer::sum);
+        long delaySeconds = Math.min(retryBackoffSeconds << Math.min(failures - 1, 10), 600);
+        log.error("超时关闭订单失败，{}秒后重试（第{}次失败），订单ID: {}", delaySeconds, failures, orderId, cause);
+        HashedTimingWheel.Timeout retry = wheel.schedule(orderId, System.currentTimeMillis() + delaySeconds * 1000);
+        if (timeouts.putIfAbsent(orderId, retry) != null) {
+            retry.cancel();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.example.springboot.service.ranking;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.entity.HeritageItem;
+import org.example.springboot.enums.HeritageItemStatus;
+import org.example.springboot.mapper.HeritageItemMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 非遗作品热度排行
+ *
+ * 1. 浏览计数：每个作品一个LongAdder分段计数器，记录浏览无锁
+ * 2. 批量落库：定时把累计增量用一条 CASE 语句批量累加到 view_count，而不是每次浏览一条UPDATE
+ * 3. 时间衰减：采用前向衰减，分数 = Σ 浏览量 × e^(λ·(浏览时间 - 基准时间))，
+ *    新浏览只需累加，不必每轮衰减全部作品；指数过大时整体重置基准时间
+ * 4. Top K：每轮落库后重算排行快照，查询直接读取快照
+ *
+ * @author system
+ */
+@Slf4j
+@Component
+public class HeritageItemPopularityRanking {
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    /**
+     * 衰减指数超过该值时重置基准时间，防止double溢出
+     */
+    private static final double MAX_EXPONENT = 300;
+
+    @Resource
+    private HeritageItemMapper heritageItemMapper;
+
+    @Value("${heritage.popularity.top-k:100}")
+    private int topK;
+
+    @Value("${heritage.popularity.half-life-hours:72}")
+    private double halfLifeHours;
+
+    /**
+     * 待落库的浏览增量
+     * 计数器创建后不再移除：移除与无锁递增之间无法避免竞争（递增可能落在已移除的计数器上而丢失），
+     * 只有已发布作品会记录浏览，条目数以作品总数为上限
+     */
+    private final ConcurrentHashMap<String, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    /**
+     * 已发布作品的热度分数（相对基准时间），由 this 锁保护
+     */
+    private final Map<String, Double> scores = new HashMap<>();
+
+    private long epochMillis = System.currentTimeMillis();
+
+    private volatile List<String> topIds = Collections.emptyList();
+
+    private volatile boolean ready;
+
+    /**
+     * 应用启动后以累计浏览量初始化热度分数
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            LambdaQueryWrapper<HeritageItem> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(HeritageItem::getId, HeritageItem::getViewCount,
+                            HeritageItem::getPublishTime, HeritageItem::getCreateTime)
+                    .eq(HeritageItem::getStatus, HeritageItemStatus.PUBLISHED.getCode());
+            List<HeritageItem> items = heritageItemMapper.selectList(wrapper);
+
+            synchronized (this) {
+                scores.clear();
+                epochMillis = System.currentTimeMillis();
+                for (HeritageItem item : items) {
+                    // 历史浏览量没有时间明细，按发布时间计入衰减
+                    LocalDateTime reference = item.getPublishTime() != null ? item.getPublishTime() : item.getCreateTime();
+                    long viewCount = item.getViewCount() != null ? item.getViewCount() : 0L;
+                    long referenceMillis = reference != null
+                            ? reference.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : epochMillis;
+                    scores.put(item.getId(), viewCount * weightAt(Math.min(referenceMillis, epochMillis)));
+                }
+                refreshTopK();
+            }
+            ready = true;
+            log.info("非遗作品热度排行初始化完成: 作品数={}", items.size());
+        } catch (Exception e) {
+            log.error("非遗作品热度排行初始化失败，热门作品将回退到数据库查询", e);
+        }
+    }
+
+    /**
+     * 记录一次浏览（无锁）
+     * @param itemId 作品ID
+     */
+    public void recordView(String itemId) {
+        if (itemId == null) {
+            return;
+        }
+        pendingViews.computeIfAbsent(itemId, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 作品发布后纳入排行
+     * @param itemId 作品ID
+     */
+    public synchronized void track(String itemId) {
+        scores.putIfAbsent(itemId, 0.0);
+        refreshTopK();
+    }
+
+    /**
+     * 作品下架或删除后移出排行
+     * @param itemId 作品ID
+     */
+    public synchronized void remove(String itemId) {
+        if (scores.remove(itemId) != null) {
+            refreshTopK();
+        }
+    }
+
+    /**
+     * 排行是否可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 获取热度最高的作品ID（读取排行快照）
+     * @param limit 数量，超过Top K时按Top K截断
+     * @return 按热度降序排列的作品ID
+     */
+    public List<String> getTopIds(int limit) {
+        List<String> snapshot = topIds;
+        return snapshot.subList(0, Math.max(0, Math.min(limit, snapshot.size())));
+    }
+
+    /**
+     * 定时把浏览增量批量落库并更新热度分数
+     */
+    @Scheduled(fixedDelayString = "${heritage.popularity.flush-interval-ms:10000}")
+    public void flush() {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : pendingViews.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                deltas.put(entry.getKey(), delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        persist(deltas);
+
+        synchronized (this) {
+            double weight = weightAt(System.currentTimeMillis());
+            deltas.forEach((itemId, delta) -> scores.computeIfPresent(itemId, (k, score) -> score + delta * weight));
+            refreshTopK();
+        }
+    }
+
+    /**
+     * 分批写入浏览增量，失败的增量放回计数器等待下一轮
+     */
+    private void persist(Map<String, Long> deltas) {
+        Map<String, Long> batch = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= FLUSH_BATCH_SIZE) {
+                persistBatch(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            persistBatch(batch);
+        }
+    }
+
+    private void persistBatch(Map<String, Long> batch) {
+        try {
+            heritageItemMapper.batchIncrementViewCount(batch);
+        } catch (Exception e) {
+            log.error("作品浏览量落库失败，本批将在下一轮重试: size={}", batch.size(), e);
+            batch.forEach((itemId, delta) -> pendingViews.computeIfAbsent(itemId, k -> new LongAdder()).add(delta));
+        }
+    }
+
+    /**
+     * 计算某一时刻浏览的权重 e^(λ·(t - 基准时间))，必要时重置基准时间（调用方持有 this 锁）
+     */
+    private double weightAt(long timeMillis) {
+        double lambda = Math.log(2) / (halfLifeHours * 3600_000L);
+        double exponent = lambda * (timeMillis - epochMillis);
+        if (exponent > MAX_EXPONENT) {
+            double factor = Math.exp(-exponent);
+            scores.replaceAll((k, score) -> score * factor);
+            epochMillis = timeMillis;
+            exponent = 0;
+        }
+        return Math.exp(exponent);
+    }
+
+    /**
+     * 重算Top K快照（调用方持有 this 锁）
+     */
+    private void refreshTopK() {
+        PriorityQueue<Map.Entry<String, Double>> heap =
+                new PriorityQueue<>(topK + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            heap.offer(Map.entry(entry.getKey(), entry.getValue()));
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        }
+        List<String> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().getKey());
+        }
+        Collections.reverse(result);
+        topIds = Collections.unmodifiableList(result);
+    }
+}
@@ -0,0 +1,419 @@
+package org.example.springboot.service.recommend;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 商品共现模型（基于物品的协同过滤）
+ *
+ * 1. 读路径：优先读取 {@link ProductSimilarityBuildJob} 离线构建的不可变快照，volatile引用，无锁
+ * 2. 写路径：订单支付成功后增量更新共现矩阵（商品ID映射为int下标，计数存放在 {@link IntIntHashMap}），
+ *    受影响的商品标记为"脏"，在下一份快照生效前改由共现矩阵实时计算相似商品
+ * 3. 相似度为余弦相似度：共同购买用户数 / sqrt(购买A的用户数 × 购买B的用户数)
+ *
+ * @author system
+ */
+@Slf4j
+@Component
+public class ProductCooccurrenceModel {
+
+    /**
+     * 每个商品预计算的相似商品数量
+     */
+    @Value("${shop.recommend.neighbor-size:50}")
+    private int neighborSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+
+    private volatile SimilaritySnapshot snapshot = SimilaritySnapshot.EMPTY;
+
+    /**
+     * 构建期间到达的增量购买，构建完成后重放到新矩阵
+     */
+    private List<Purchase> pendingPurchases;
+
+    /**
+     * 增量购买序号，用于判断脏标记是否已被新快照覆盖
+     */
+    private final AtomicLong purchaseSequence = new AtomicLong();
+
+    /**
+     * 快照生成后发生过变化的商品ID -> 最近一次变化的购买序号
+     */
+    private final ConcurrentHashMap<String, Long> dirtyProducts = new ConcurrentHashMap<>();
+
+    /**
+     * 脏商品下标 -> 基于共现矩阵实时计算的Top N相似商品及相似度（按相似度降序）
+     */
+    private final ConcurrentHashMap<Integer, Map<String, Float>> neighborCache = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * 开始一次全量构建：此后到达的增量购买会被暂存，构建完成时重放
+     * @return 当前购买序号，不大于该序号的购买已包含在本次构建读取的数据中
+     */
+    public long beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingPurchases = new ArrayList<>();
+            return purchaseSequence.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 完成全量构建：根据购买记录重建共现矩阵，并原子替换相似度快照
+     * @param history 构建读取的购买记录
+     * @param newSnapshot 新的相似度快照
+     * @param startSequence {@link #beginRebuild()} 返回的序号
+     */
+    void completeRebuild(PurchaseHistory history, SimilaritySnapshot newSnapshot, long startSequence) {
+        CooccurrenceMatrix newMatrix = CooccurrenceMatrix.from(history);
+
+        lock.writeLock().lock();
+        try {
+            for (Purchase purchase : pendingPurchases) {
+                newMatrix.addPurchase(purchase.userId, purchase.productIds);
+            }
+            matrix = newMatrix;
+            neighborCache.clear();
+            snapshot = newSnapshot;
+            // 构建开始前的变化已包含在新快照中；构建期间的变化仍保持脏标记
+            dirtyProducts.values().removeIf(sequence -> sequence <= startSequence);
+            ready = true;
+        } finally {
+            pendingPurchases = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 放弃本次全量构建
+     */
+    public void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingPurchases = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 模型是否可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 记录一次购买（订单支付成功后调用）
+     * 同一用户重复购买同一商品不会重复计数，因此重放是幂等的
+     * @param userId 用户ID
+     * @param productIds 订单中的商品ID
+     */
+    public void recordPurchase(Long userId, Collection<String> productIds) {
+        if (userId == null || productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long sequence = purchaseSequence.incrementAndGet();
+            if (pendingPurchases != null) {
+                pendingPurchases.add(new Purchase(userId, new ArrayList<>(productIds)));
+            }
+            for (int index : matrix.addPurchase(userId, productIds)) {
+                neighborCache.remove(index);
+                dirtyProducts.put(matrix.productId(index), sequence);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取与指定商品最相似的商品
+     * @param productId 商品ID
+     * @param limit 数量，超过预计算数量时按预计算数量截断
+     * @return 按相似度降序排列的商品ID，商品无购买记录时返回空列表
+     */
+    public List<String> getSimilarProducts(String productId, int limit) {
+        if (!dirtyProducts.containsKey(productId)) {
+            List<String> similar = snapshot.similarProducts(productId, limit);
+            return similar != null ? similar : Collections.emptyList();
+        }
+        return liveNeighbors(productId).keySet().stream()
+                .limit(Math.max(limit, 0))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取与指定商品相似的商品及相似度
+     * @param productId 商品ID
+     * @return 商品ID -> 相似度，按相似度降序；商品无购买记录时返回空Map
+     */
+    public Map<String, Float> getSimilarityScores(String productId) {
+        if (!dirtyProducts.containsKey(productId)) {
+            Map<String, Float> scores = snapshot.similarityScores(productId);
+            return scores != null ? scores : Collections.emptyMap();
+        }
+        return liveNeighbors(productId);
+    }
+
+    /**
+     * 获取用户购买过的商品
+     * @param userId 用户ID
+     * @return 商品ID列表，无购买记录时返回空列表
+     */
+    public List<String> getUserProducts(Long userId) {
+        lock.readLock().lock();
+        try {
+            return matrix.userProducts(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 基于共现矩阵实时计算脏商品的相似商品（结果缓存到下次变化为止）
+     */
+    private Map<String, Float> liveNeighbors(String productId) {
+        lock.readLock().lock();
+        try {
+            Integer index = matrix.indexOf(productId);
+            if (index == null) {
+                return Collections.emptyMap();
+            }
+            return neighborCache.computeIfAbsent(index, i -> matrix.topNeighbors(i, neighborSize));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 模型统计信息
+     */
+    public Map<String, Object> stats() {
+        SimilaritySnapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("snapshotBuiltAt", current.builtAt());
+        stats.put("snapshotBuildMillis", current.buildMillis());
+        stats.put("snapshotProductCount", current.productCount());
+        stats.put("snapshotPairCount", current.pairCount());
+        stats.put("snapshotEstimatedBytes", current.estimatedBytes());
+        stats.put("dirtyProducts", dirtyProducts.size());
+        lock.readLock().lock();
+        try {
+            stats.put("productCount", matrix.productCount());
+            stats.put("userCount", matrix.userCount());
+            stats.put("pairCount", matrix.pairCount());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+
+    private static final class Purchase {
+        private final Long userId;
+        private final List<String> productIds;
+
+        private Purchase(Long userId, List<String> productIds) {
+            this.userId = userId;
+            this.productIds = productIds;
+        }
+    }
+
+    /**
+     * 共现矩阵，非线程安全，由外层读写锁保护
+     */
+    private static final class CooccurrenceMatrix {
+
+        private final Map<String, Integer> productIndex = new HashMap<>();
+        private final List<String> productIds = new ArrayList<>();
+        private final List<IntIntHashMap> cooccurrences = new ArrayList<>();
+        private int[] buyerCounts = new int[64];
+
+        /**
+         * 用户ID -> 已购商品下标（升序）
+         */
+        private final Map<Long, int[]> userProducts = new HashMap<>();
+
+        private long pairCount;
+
+        /**
+         * 根据购买记录构建矩阵，商品下标与购买记录保持一致
+         */
+        static CooccurrenceMatrix from(PurchaseHistory history) {
+            CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+            for (String productId : history.productIds()) {
+                matrix.indexOrCreate(productId);
+            }
+            for (int u = 0; u < history.userCount(); u++) {
+                matrix.addIndexedPurchase(history.userId(u), history.userProducts(u));
+            }
+            return matrix;
+        }
+
+        Integer indexOf(String productId) {
+            return productIndex.get(productId);
+        }
+
+        String productId(int index) {
+            return productIds.get(index);
+        }
+
+        int productCount() {
+            return productIds.size();
+        }
+
+        int userCount() {
+            return userProducts.size();
+        }
+
+        long pairCount() {
+            return pairCount;
+        }
+
+        /**
+         * 累加一次购买
+         * @return Top N列表需要失效的商品下标
+         */
+        Set<Integer> addPurchase(Long userId, Collection<String> products) {
+            int[] indexes = products.stream()
+                    .filter(id -> id != null)
+                    .mapToInt(this::indexOrCreate)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            int[] added = addIndexedPurchase(userId, indexes);
+            if (added.length == 0) {
+                return Collections.emptySet();
+            }
+
+            // 新购商品的共现行变化；其购买人数变化又影响所有相邻商品的余弦分母
+            Set<Integer> affected = new HashSet<>();
+            for (int index : userProducts.get(userId)) {
+                affected.add(index);
+            }
+            for (int p : added) {
+                cooccurrences.get(p).forEach((q, count) -> affected.add(q));
+            }
+            return affected;
+        }
+
+        /**
+         * 累加一次购买
+         * @param indexes 商品下标（升序去重）
+         * @return 该用户首次购买的商品下标
+         */
+        private int[] addIndexedPurchase(Long userId, int[] indexes) {
+            int[] owned = userProducts.getOrDefault(userId, new int[0]);
+            int[] added = Arrays.stream(indexes)
+                    .filter(index -> Arrays.binarySearch(owned, index) < 0)
+                    .toArray();
+            if (added.length == 0) {
+                return added;
+            }
+
+            for (int i = 0; i < added.length; i++) {
+                int p = added[i];
+                buyerCounts[p]++;
+                for (int q : owned) {
+                    increment(p, q);
+                }
+                for (int j = 0; j < i; j++) {
+                    increment(p, added[j]);
+                }
+            }
+
+            int[] merged = Arrays.copyOf(owned, owned.length + added.length);
+            System.arraycopy(added, 0, merged, owned.length, added.length);
+            Arrays.sort(merged);
+            userProducts.put(userId, merged);
+            return added;
+        }
+
+        List<String> userProducts(Long userId) {
+            int[] owned = userProducts.get(userId);
+            if (owned == null) {
+                return Collections.emptyList();
+            }
+            List<String> result = new ArrayList<>(owned.length);
+            for (int index : owned) {
+                result.add(productIds.get(index));
+            }
+            return result;
+        }
+
+        /**
+         * 计算与指定商品余弦相似度最高的N个商品
+         * @return 商品ID -> 相似度，按相似度降序
+         */
+        Map<String, Float> topNeighbors(int index, int n) {
+            PriorityQueue<double[]> heap = new PriorityQueue<>(n + 1, (a, b) -> Double.compare(a[1], b[1]));
+            double norm = Math.sqrt(buyerCounts[index]);
+            cooccurrences.get(index).forEach((other, count) -> {
+                double similarity = count / (norm * Math.sqrt(buyerCounts[other]));
+                heap.offer(new double[]{other, similarity});
+                if (heap.size() > n) {
+                    heap.poll();
+                }
+            });
+            double[][] sorted = new double[heap.size()][];
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                sorted[i] = heap.poll();
+            }
+            Map<String, Float> result = new LinkedHashMap<>(sorted.length * 2);
+            for (double[] entry : sorted) {
+                result.put(productIds.get((int) entry[0]), (float) entry[1]);
+            }
+            return Collections.unmodifiableMap(result);
+        }
+
+        private void increment(int a, int b) {
+            IntIntHashMap rowA = cooccurrences.get(a);
+            if (rowA.get(b) == 0) {
+                pairCount++;
+            }
+            rowA.addTo(b, 1);
+            cooccurrences.get(b).addTo(a, 1);
+        }
+
+        private int indexOrCreate(String productId) {
+            Integer index = productIndex.get(productId);
+            if (index != null) {
+                return index;
+            }
+            int newIndex = productIds.size();
+            productIndex.put(productId, newIndex);
+            productIds.add(productId);
+            cooccurrences.add(new IntIntHashMap());
+            if (newIndex >= buyerCounts.length) {
+                buyerCounts = Arrays.copyOf(buyerCounts, buyerCounts.length << 1);
+            }
+            return newIndex;
+        }
+    }
+}
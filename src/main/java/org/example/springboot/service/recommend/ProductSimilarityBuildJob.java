@@ -0,0 +1,287 @@
+package org.example.springboot.service.recommend;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.enums.OrderStatus;
+import org.example.springboot.mapper.ShopOrderItemMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 商品相似度离线构建任务
+ *
+ * 1. 通过流式游标逐行读取已支付订单的购买记录，不一次性加载整张表
+ * 2. 按商品下标区间切分，使用Fork/Join在多核上并行计算所有商品对的余弦相似度
+ * 3. 生成不可变快照后交给 {@link ProductCooccurrenceModel} 原子替换，读请求不受构建影响
+ * 4. 记录构建耗时、商品对数量和快照内存占用
+ *
+ * @author system
+ */
+@Slf4j
+@Component
+public class ProductSimilarityBuildJob {
+
+    private static final List<Integer> PURCHASED_STATUSES = Arrays.asList(
+            OrderStatus.PAID.getCode(), OrderStatus.SHIPPED.getCode(), OrderStatus.COMPLETED.getCode());
+
+    /**
+     * 每个Fork/Join叶子任务处理的商品数量
+     */
+    private static final int LEAF_SIZE = 64;
+
+    @Resource
+    private ShopOrderItemMapper shopOrderItemMapper;
+
+    @Resource
+    private ProductCooccurrenceModel productCooccurrenceModel;
+
+    /**
+     * 每个商品保留的相似商品数量
+     */
+    @Value("${shop.recommend.neighbor-size:50}")
+    private int neighborSize;
+
+    /**
+     * 并行度，0表示使用CPU核数
+     */
+    @Value("${shop.recommend.build-parallelism:0}")
+    private int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 应用启动完成后构建一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        build();
+    }
+
+    /**
+     * 定时全量重建
+     */
+    @Scheduled(cron = "${shop.recommend.rebuild-cron:0 30 3 * * ?}")
+    public void scheduledBuild() {
+        build();
+    }
+
+    /**
+     * 全量构建相似度快照
+     * @return 是否执行了构建（已有构建在运行时直接返回false）
+     */
+    public boolean build() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("商品相似度构建任务正在运行，跳过本次触发");
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        long startSequence = productCooccurrenceModel.beginRebuild();
+        try {
+            PurchaseHistory history = loadPurchaseHistory();
+            long loadMillis = System.currentTimeMillis() - start;
+
+            SimilaritySnapshot snapshot = computeSnapshot(history, start);
+            productCooccurrenceModel.completeRebuild(history, snapshot, startSequence);
+
+            Runtime runtime = Runtime.getRuntime();
+            log.info("商品相似度构建完成: 商品数={}, 用户数={}, 商品对数={}, 读取耗时={}ms, 总耗时={}ms, "
+                            + "快照估算内存={}KB, 当前堆使用={}MB",
+                    snapshot.productCount(), history.userCount(), snapshot.pairCount(), loadMillis,
+                    snapshot.buildMillis(), snapshot.estimatedBytes() / 1024,
+                    (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+            return true;
+        } catch (Exception e) {
+            productCooccurrenceModel.abortRebuild();
+            log.error("商品相似度构建失败，继续使用上一份快照", e);
+            return false;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 流式读取购买记录
+     */
+    private PurchaseHistory loadPurchaseHistory() {
+        PurchaseHistory history = new PurchaseHistory();
+        shopOrderItemMapper.streamPurchasedProducts(PURCHASED_STATUSES, context -> {
+            Map<String, Object> row = context.getResultObject();
+            Object userId = row.get("userId");
+            Object productId = row.get("productId");
+            if (userId instanceof Number && productId != null) {
+                history.add(((Number) userId).longValue(), productId.toString());
+            }
+        });
+        history.freeze();
+        return history;
+    }
+
+    /**
+     * 并行计算所有商品的Top N相似商品
+     */
+    private SimilaritySnapshot computeSnapshot(PurchaseHistory history, long start) {
+        int productCount = history.productCount();
+        int[][] productUsers = history.productUsers();
+        int[][] neighbors = new int[productCount][];
+        float[][] scores = new float[productCount][];
+        LongAdder pairCounter = new LongAdder();
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new SimilarityTask(history, productUsers, neighbors, scores, pairCounter, 0, productCount));
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, Integer> productIndex = new HashMap<>(productCount * 2);
+        String[] productIds = history.productIds().toArray(new String[0]);
+        for (int i = 0; i < productIds.length; i++) {
+            productIndex.put(productIds[i], i);
+        }
+        // 每个无序商品对在两端各计数一次
+        return new SimilaritySnapshot(productIndex, productIds, neighbors, scores,
+                pairCounter.sum() / 2, System.currentTimeMillis() - start, LocalDateTime.now());
+    }
+
+    /**
+     * 按商品下标区间二分的并行任务
+     */
+    private final class SimilarityTask extends RecursiveAction {
+
+        private final PurchaseHistory history;
+        private final int[][] productUsers;
+        private final int[][] neighbors;
+        private final float[][] scores;
+        private final LongAdder pairCounter;
+        private final int from;
+        private final int to;
+
+        private SimilarityTask(PurchaseHistory history, int[][] productUsers, int[][] neighbors,
+                               float[][] scores, LongAdder pairCounter, int from, int to) {
+            this.history = history;
+            this.productUsers = productUsers;
+            this.neighbors = neighbors;
+            this.scores = scores;
+            this.pairCounter = pairCounter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SimilarityTask(history, productUsers, neighbors, scores, pairCounter, from, mid),
+                        new SimilarityTask(history, productUsers, neighbors, scores, pairCounter, mid, to));
+                return;
+            }
+
+            // 叶子任务内复用的共现计数数组和已触达商品列表
+            int[] counts = new int[history.productCount()];
+            int[] touched = new int[history.productCount()];
+            long pairs = 0;
+            for (int p = from; p < to; p++) {
+                int touchedSize = 0;
+                for (int user : productUsers[p]) {
+                    for (int q : history.userProducts(user)) {
+                        if (q != p && counts[q]++ == 0) {
+                            touched[touchedSize++] = q;
+                        }
+                    }
+                }
+                pairs += touchedSize;
+                selectTopNeighbors(p, counts, touched, touchedSize);
+                for (int i = 0; i < touchedSize; i++) {
+                    counts[touched[i]] = 0;
+                }
+            }
+            pairCounter.add(pairs);
+        }
+
+        /**
+         * 按余弦相似度选出Top N，结果按相似度降序写入
+         */
+        private void selectTopNeighbors(int p, int[] counts, int[] touched, int touchedSize) {
+            int n = Math.min(neighborSize, touchedSize);
+            int[] heapIds = new int[n];
+            float[] heapScores = new float[n];
+            int heapSize = 0;
+            double norm = Math.sqrt(history.buyerCount(p));
+            for (int i = 0; i < touchedSize; i++) {
+                int q = touched[i];
+                float score = (float) (counts[q] / (norm * Math.sqrt(history.buyerCount(q))));
+                if (heapSize < n) {
+                    heapIds[heapSize] = q;
+                    heapScores[heapSize] = score;
+                    siftUp(heapIds, heapScores, heapSize++);
+                } else if (n > 0 && score > heapScores[0]) {
+                    heapIds[0] = q;
+                    heapScores[0] = score;
+                    siftDown(heapIds, heapScores, heapSize);
+                }
+            }
+            // 依次弹出堆顶（最小值）从后往前填充，得到降序结果
+            int[] rowIds = new int[heapSize];
+            float[] rowScores = new float[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                rowIds[i] = heapIds[0];
+                rowScores[i] = heapScores[0];
+                heapIds[0] = heapIds[i];
+                heapScores[0] = heapScores[i];
+                siftDown(heapIds, heapScores, i);
+            }
+            neighbors[p] = rowIds;
+            scores[p] = rowScores;
+        }
+
+        private void siftUp(int[] ids, float[] values, int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (values[parent] <= values[index]) {
+                    break;
+                }
+                swap(ids, values, parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] ids, float[] values, int size) {
+            int index = 0;
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    break;
+                }
+                int smallest = left + 1 < size && values[left + 1] < values[left] ? left + 1 : left;
+                if (values[index] <= values[smallest]) {
+                    break;
+                }
+                swap(ids, values, index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int[] ids, float[] values, int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            float value = values[a];
+            values[a] = values[b];
+            values[b] = value;
+        }
+    }
+}
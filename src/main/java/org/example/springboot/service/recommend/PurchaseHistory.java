@@ -0,0 +1,133 @@
+package org.example.springboot.service.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户购买记录（商品ID已映射为连续int下标）
+ *
+ * 由构建任务从订单流中逐行累加，{@link #freeze()} 后只读
+ *
+ * @author system
+ */
+final class PurchaseHistory {
+
+    private final Map<String, Integer> productIndex = new HashMap<>();
+    private final List<String> productIds = new ArrayList<>();
+    private final Map<Long, IntList> pending = new HashMap<>();
+
+    private long[] userIds;
+    private int[][] userProducts;
+    private int[] buyerCounts;
+
+    /**
+     * 累加一行购买记录
+     */
+    void add(Long userId, String productId) {
+        if (userId == null || productId == null) {
+            return;
+        }
+        Integer index = productIndex.get(productId);
+        if (index == null) {
+            index = productIds.size();
+            productIndex.put(productId, index);
+            productIds.add(productId);
+        }
+        pending.computeIfAbsent(userId, k -> new IntList()).add(index);
+    }
+
+    /**
+     * 结束累加：每个用户的商品下标排序去重，并统计每个商品的购买人数
+     */
+    void freeze() {
+        userIds = new long[pending.size()];
+        userProducts = new int[pending.size()][];
+        buyerCounts = new int[productIds.size()];
+        int u = 0;
+        for (Map.Entry<Long, IntList> entry : pending.entrySet()) {
+            int[] products = entry.getValue().toSortedDistinctArray();
+            for (int p : products) {
+                buyerCounts[p]++;
+            }
+            userIds[u] = entry.getKey();
+            userProducts[u] = products;
+            u++;
+        }
+        pending.clear();
+    }
+
+    int productCount() {
+        return productIds.size();
+    }
+
+    int userCount() {
+        return userIds.length;
+    }
+
+    String productId(int index) {
+        return productIds.get(index);
+    }
+
+    List<String> productIds() {
+        return productIds;
+    }
+
+    long userId(int userOrdinal) {
+        return userIds[userOrdinal];
+    }
+
+    /**
+     * 用户购买过的商品下标（升序）
+     */
+    int[] userProducts(int userOrdinal) {
+        return userProducts[userOrdinal];
+    }
+
+    int buyerCount(int productIndex) {
+        return buyerCounts[productIndex];
+    }
+
+    /**
+     * 商品 -> 购买该商品的用户序号（倒排）
+     */
+    int[][] productUsers() {
+        int[][] result = new int[productIds.size()][];
+        int[] fill = new int[productIds.size()];
+        for (int p = 0; p < result.length; p++) {
+            result[p] = new int[buyerCounts[p]];
+        }
+        for (int u = 0; u < userProducts.length; u++) {
+            for (int p : userProducts[u]) {
+                result[p][fill[p]++] = u;
+            }
+        }
+        return result;
+    }
+
+    private static final class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size << 1);
+            }
+            data[size++] = value;
+        }
+
+        int[] toSortedDistinctArray() {
+            int[] sorted = Arrays.copyOf(data, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
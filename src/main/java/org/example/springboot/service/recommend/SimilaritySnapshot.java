@@ -0,0 +1,115 @@
+package org.example.springboot.service.recommend;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品相似度快照（不可变）
+ *
+ * 由离线构建任务一次性生成，通过volatile引用整体替换，读取无需加锁
+ *
+ * @author system
+ */
+final class SimilaritySnapshot {
+
+    static final SimilaritySnapshot EMPTY = new SimilaritySnapshot(
+            Collections.emptyMap(), new String[0], new int[0][], new float[0][], 0L, 0L, null);
+
+    private final Map<String, Integer> productIndex;
+    private final String[] productIds;
+    private final int[][] neighbors;
+    private final float[][] scores;
+    private final long pairCount;
+    private final long buildMillis;
+    private final LocalDateTime builtAt;
+    private final long estimatedBytes;
+
+    SimilaritySnapshot(Map<String, Integer> productIndex, String[] productIds, int[][] neighbors,
+                       float[][] scores, long pairCount, long buildMillis, LocalDateTime builtAt) {
+        this.productIndex = productIndex;
+        this.productIds = productIds;
+        this.neighbors = neighbors;
+        this.scores = scores;
+        this.pairCount = pairCount;
+        this.buildMillis = buildMillis;
+        this.builtAt = builtAt;
+        this.estimatedBytes = estimateBytes();
+    }
+
+    /**
+     * 获取相似商品
+     * @return 按相似度降序排列的商品ID；快照中没有该商品时返回null
+     */
+    List<String> similarProducts(String productId, int limit) {
+        Integer index = productIndex.get(productId);
+        if (index == null) {
+            return null;
+        }
+        int[] row = neighbors[index];
+        int n = Math.min(Math.max(limit, 0), row.length);
+        String[] result = new String[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = productIds[row[i]];
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * 获取相似商品及相似度（稀疏向量）
+     * @return 商品ID -> 相似度，按相似度降序；快照中没有该商品时返回null
+     */
+    Map<String, Float> similarityScores(String productId) {
+        Integer index = productIndex.get(productId);
+        if (index == null) {
+            return null;
+        }
+        int[] row = neighbors[index];
+        Map<String, Float> result = new LinkedHashMap<>(row.length * 2);
+        for (int i = 0; i < row.length; i++) {
+            result.put(productIds[row[i]], scores[index][i]);
+        }
+        return result;
+    }
+
+    int productCount() {
+        return productIds.length;
+    }
+
+    long pairCount() {
+        return pairCount;
+    }
+
+    long buildMillis() {
+        return buildMillis;
+    }
+
+    LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * 粗略估算快照占用的堆内存（对象头16字节、引用4字节，按压缩指针计）
+     */
+    private long estimateBytes() {
+        long bytes = 16L + 4L * productIds.length;
+        for (String id : productIds) {
+            // String对象 + byte[]
+            bytes += 24 + 16 + id.length();
+            // HashMap节点 + 装箱Integer + 桶数组槽位
+            bytes += 32 + 16 + 8;
+        }
+        for (int i = 0; i < neighbors.length; i++) {
+            bytes += 16 + 4L * neighbors[i].length;
+            bytes += 16 + 4L * scores[i].length;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,342 @@
+package org.example.springboot.service.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.entity.HeritageItem;
+import org.example.springboot.enums.HeritageItemStatus;
+import org.example.springboot.mapper.HeritageItemMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 非遗作品内存倒排索引
+ *
+ * 1. 只收录已发布作品，启动时全量加载，作品增删改及状态变更时增量维护
+ * 2. 分词见 {@link HeritageTokenizer}，标题、类别、地区按权重放大词频
+ * 3. 使用BM25打分，查询成本只与命中词项的倒排链长度相关，与作品总量无关
+ * 4. 全量构建期间的增量变更会被记录，新索引替换旧索引时按顺序重放，避免被构建快照覆盖丢失
+ *
+ * @author system
+ */
+@Slf4j
+@Component
+public class HeritageSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int REGION_WEIGHT = 2;
+    private static final int SUMMARY_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    @Resource
+    private HeritageItemMapper heritageItemMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 倒排表：词项 -> (作品ID -> 加权词频)
+     */
+    private Map<String, Map<String, Integer>> postings = new HashMap<>();
+
+    /**
+     * 正排表：作品ID -> 文档信息（用于删除和长度归一化）
+     */
+    private Map<String, IndexedDoc> docs = new HashMap<>();
+
+    private long totalLength;
+
+    /**
+     * 全量构建期间的增量变更：作品ID -> 最新文档（null表示移除），非构建期间为null
+     */
+    private Map<String, IndexedDoc> pendingChanges;
+
+    private volatile boolean ready;
+
+    /**
+     * 应用启动完成后全量构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        // 先开始记录增量变更再读取快照：快照之前提交的变更已包含在快照中，之后的变更在替换时重放
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            LambdaQueryWrapper<HeritageItem> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(HeritageItem::getStatus, HeritageItemStatus.PUBLISHED.getCode());
+            List<HeritageItem> items = heritageItemMapper.selectList(wrapper);
+
+            Map<String, Map<String, Integer>> newPostings = new HashMap<>();
+            Map<String, IndexedDoc> newDocs = new HashMap<>();
+            long newTotalLength = 0;
+            for (HeritageItem item : items) {
+                IndexedDoc doc = analyze(item);
+                addToPostings(newPostings, item.getId(), doc);
+                newDocs.put(item.getId(), doc);
+                newTotalLength += doc.length;
+            }
+
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                docs = newDocs;
+                totalLength = newTotalLength;
+                replayed = pendingChanges.size();
+                for (Map.Entry<String, IndexedDoc> entry : pendingChanges.entrySet()) {
+                    removeInternal(entry.getKey());
+                    if (entry.getValue() != null) {
+                        addInternal(entry.getKey(), entry.getValue());
+                    }
+                }
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("非遗作品检索索引构建完成: 作品数={}, 词项数={}, 重放变更数={}, 耗时={}ms",
+                    docs.size(), postings.size(), replayed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("非遗作品检索索引构建失败，检索将回退到数据库查询", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 索引是否可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 新增或更新作品索引；未发布的作品会从索引中移除
+     * @param item 作品实体
+     */
+    public void upsert(HeritageItem item) {
+        if (item == null || item.getId() == null) {
+            return;
+        }
+        if (!item.isPublished()) {
+            remove(item.getId());
+            return;
+        }
+        IndexedDoc doc = analyze(item);
+        lock.writeLock().lock();
+        try {
+            removeInternal(item.getId());
+            addInternal(item.getId(), doc);
+            recordPending(item.getId(), doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除作品
+     * @param itemId 作品ID
+     */
+    public void remove(String itemId) {
+        if (itemId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(itemId);
+            recordPending(itemId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按BM25相关度检索
+     * @param keyword 关键词
+     * @param limit 返回数量
+     * @return 按相关度降序排列的作品ID
+     */
+    public List<String> search(String keyword, int limit) {
+        Set<String> terms = new LinkedHashSet<>(HeritageTokenizer.tokenizeForQuery(keyword));
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = docs.size();
+            if (docCount == 0) {
+                return Collections.emptyList();
+            }
+            double avgLength = (double) totalLength / docCount;
+
+            Map<String, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<String, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                int df = posting.size();
+                double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+                for (Map.Entry<String, Integer> entry : posting.entrySet()) {
+                    IndexedDoc doc = docs.get(entry.getKey());
+                    int tf = entry.getValue();
+                    double norm = K1 * (1 - B + B * doc.length / avgLength);
+                    double score = idf * tf * (K1 + 1) / (tf + norm);
+                    scores.merge(entry.getKey(), score, Double::sum);
+                }
+            }
+
+            // 小顶堆保留Top K，分数相同时较新的作品优先
+            PriorityQueue<ScoredDoc> heap = new PriorityQueue<>(limit + 1);
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                heap.offer(new ScoredDoc(entry.getKey(), entry.getValue(), docs.get(entry.getKey()).createTime));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+
+            List<String> result = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                result.add(heap.poll().id);
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前索引的作品数量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addInternal(String itemId, IndexedDoc doc) {
+        addToPostings(postings, itemId, doc);
+        docs.put(itemId, doc);
+        totalLength += doc.length;
+    }
+
+    /**
+     * 全量构建期间记录增量变更，同一作品只保留最后一次
+     */
+    private void recordPending(String itemId, IndexedDoc doc) {
+        if (pendingChanges != null) {
+            pendingChanges.remove(itemId);
+            pendingChanges.put(itemId, doc);
+        }
+    }
+
+    private void removeInternal(String itemId) {
+        IndexedDoc old = docs.remove(itemId);
+        if (old == null) {
+            return;
+        }
+        totalLength -= old.length;
+        for (String term : old.termFreqs.keySet()) {
+            Map<String, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(itemId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addToPostings(Map<String, Map<String, Integer>> target, String itemId, IndexedDoc doc) {
+        for (Map.Entry<String, Integer> entry : doc.termFreqs.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(itemId, entry.getValue());
+        }
+    }
+
+    private static IndexedDoc analyze(HeritageItem item) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        int length = 0;
+        length += addField(termFreqs, item.getTitle(), TITLE_WEIGHT);
+        length += addField(termFreqs, item.getCategory(), CATEGORY_WEIGHT);
+        length += addField(termFreqs, item.getRegion(), REGION_WEIGHT);
+        length += addField(termFreqs, item.getSummary(), SUMMARY_WEIGHT);
+        length += addField(termFreqs, item.getDescription(), DESCRIPTION_WEIGHT);
+        long createTime = item.getCreateTime() != null
+                ? item.getCreateTime().toEpochSecond(ZoneOffset.UTC) : 0L;
+        return new IndexedDoc(termFreqs, Math.max(length, 1), createTime);
+    }
+
+    private static int addField(Map<String, Integer> termFreqs, String text, int weight) {
+        List<String> tokens = HeritageTokenizer.tokenizeForIndex(text);
+        for (String token : tokens) {
+            termFreqs.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * 正排文档信息
+     */
+    private static final class IndexedDoc {
+        private final Map<String, Integer> termFreqs;
+        private final int length;
+        private final long createTime;
+
+        private IndexedDoc(Map<String, Integer> termFreqs, int length, long createTime) {
+            this.termFreqs = termFreqs;
+            this.length = length;
+            this.createTime = createTime;
+        }
+    }
+
+    /**
+     * 打分结果，自然顺序为分数升序（供小顶堆使用）
+     */
+    private static final class ScoredDoc implements Comparable<ScoredDoc> {
+        private final String id;
+        private final double score;
+        private final long createTime;
+
+        private ScoredDoc(String id, double score, long createTime) {
+            this.id = id;
+            this.score = score;
+            this.createTime = createTime;
+        }
+
+        @Override
+        public int compareTo(ScoredDoc other) {
+            int cmp = Double.compare(score, other.score);
+            return cmp != 0 ? cmp : Long.compare(createTime, other.createTime);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.springboot.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 非遗作品检索分词器
+ * 中文连续片段切分为单字和二元组，英文、数字按连续词切分并转小写
+ * @author system
+ */
+public class HeritageTokenizer {
+
+    private HeritageTokenizer() {
+    }
+
+    /**
+     * 建索引分词：中文片段同时输出单字和二元组，保证单字查询也能命中
+     * @param text 原文
+     * @return 词项列表（可重复，用于统计词频）
+     */
+    public static List<String> tokenizeForIndex(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 查询分词：中文片段长度大于1时只输出二元组，提高匹配精度
+     * @param text 查询关键词
+     * @return 词项列表
+     */
+    public static List<String> tokenizeForQuery(String text) {
+        return tokenize(text, false);
+    }
+
+    private static List<String> tokenize(String text, boolean forIndex) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder word = new StringBuilder();
+        StringBuilder han = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            if (isHan(codePoint)) {
+                flushWord(word, tokens);
+                han.appendCodePoint(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushHan(han, forIndex, tokens);
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                flushWord(word, tokens);
+                flushHan(han, forIndex, tokens);
+            }
+            i += Character.charCount(codePoint);
+        }
+        flushWord(word, tokens);
+        flushHan(han, forIndex, tokens);
+        return tokens;
+    }
+
+    private static boolean isHan(int codePoint) {
+        return Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushHan(StringBuilder han, boolean forIndex, List<String> tokens) {
+        if (han.length() == 0) {
+            return;
+        }
+        int[] codePoints = han.codePoints().toArray();
+        if (forIndex || codePoints.length == 1) {
+            for (int codePoint : codePoints) {
+                tokens.add(Character.toString(codePoint));
+            }
+        }
+        for (int j = 0; j + 1 < codePoints.length; j++) {
+            tokens.add(new String(codePoints, j, 2));
+        }
+        han.setLength(0);
+    }
+}
@@ -0,0 +1,231 @@
+package org.example.springboot.service.stock;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.entity.ShopOrderItem;
+import org.example.springboot.entity.ShopProduct;
+import org.example.springboot.exception.BusinessException;
+import org.example.springboot.mapper.ShopOrderMapper;
+import org.example.springboot.mapper.ShopProductMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 热卖库存服务（限量商品秒杀场景）
+ *
+ * 1. 按商品开启，开启时把商品表库存加载到内存分段计数器
+ * 2. 下单先在计数器预占，预占失败直接拒绝，不访问数据库
+ * 3. 预占成功的订单照常写入，但标记为"库存待同步"，不更新热点商品行；
+ *    事务提交后订单进入队列，定时按商品汇总后批量扣减到商品表
+ * 4. 应用重启时先把所有待同步订单扣减到商品表，再重新加载计数器
+ *
+ * @author system
+ */
+@Slf4j
+@Service
+public class HotStockService {
+
+    @Resource
+    private ShopProductMapper shopProductMapper;
+
+    @Resource
+    private ShopOrderMapper shopOrderMapper;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${shop.hot-stock.shards:16}")
+    private int shards;
+
+    @Value("${shop.hot-stock.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 商品ID -> 库存计数器（仅包含开启热卖模式的商品）
+     */
+    private final ConcurrentHashMap<String, ShardedStockCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 已提交、待同步库存的订单ID
+     */
+    private final ConcurrentLinkedQueue<Long> pendingOrderIds = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 应用启动后对账：同步上次运行遗留的待同步订单，再加载热卖商品的计数器
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        try {
+            List<Long> orderIds = shopOrderMapper.selectStockPendingOrderIds();
+            for (int from = 0; from < orderIds.size(); from += flushBatchSize) {
+                syncOrders(orderIds.subList(from, Math.min(from + flushBatchSize, orderIds.size())));
+            }
+
+            LambdaQueryWrapper<ShopProduct> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(ShopProduct::getId, ShopProduct::getStock).eq(ShopProduct::getHotStock, 1);
+            for (ShopProduct product : shopProductMapper.selectList(wrapper)) {
+                counters.put(product.getId(), new ShardedStockCounter(shards, product.getStock()));
+            }
+            log.info("热卖库存对账完成: 同步遗留订单数={}, 热卖商品数={}", orderIds.size(), counters.size());
+        } catch (Exception e) {
+            log.error("热卖库存对账失败", e);
+        }
+    }
+
+    /**
+     * 开启商品的热卖库存模式（应在开售前开启，开启瞬间仍在执行的普通下单不计入计数器）
+     * @param productId 商品ID
+     */
+    public void enable(String productId) {
+        ShopProduct product = shopProductMapper.selectById(productId);
+        if (product == null) {
+            throw new BusinessException("商品不存在");
+        }
+        if (counters.containsKey(productId)) {
+            return;
+        }
+        shopProductMapper.updateHotStock(productId, 1);
+        counters.put(productId, new ShardedStockCounter(shards, product.getStock()));
+        log.info("商品开启热卖库存模式，ID: {}, 库存: {}", productId, product.getStock());
+    }
+
+    /**
+     * 关闭商品的热卖库存模式，并立即同步待同步订单
+     * @param productId 商品ID
+     */
+    public void disable(String productId) {
+        if (counters.remove(productId) == null) {
+            return;
+        }
+        shopProductMapper.updateHotStock(productId, 0);
+        flush();
+        log.info("商品关闭热卖库存模式，ID: {}", productId);
+    }
+
+    /**
+     * 商品是否处于热卖库存模式
+     */
+    public boolean isHot(String productId) {
+        return counters.containsKey(productId);
+    }
+
+    /**
+     * 在内存计数器中预占库存
+     * @param productId 商品ID
+     * @param quantity 数量
+     * @return true 已预占；false 商品未开启热卖模式，应走数据库扣减
+     * @throws BusinessException 库存不足
+     */
+    public boolean reserve(String productId, int quantity) {
+        ShardedStockCounter counter = counters.get(productId);
+        if (counter == null) {
+            return false;
+        }
+        if (!counter.tryAcquire(quantity)) {
+            throw new BusinessException("商品已售罄");
+        }
+        return true;
+    }
+
+    /**
+     * 归还内存计数器中的库存（下单失败或订单取消）
+     * @param productId 商品ID
+     * @param quantity 数量
+     */
+    public void release(String productId, int quantity) {
+        ShardedStockCounter counter = counters.get(productId);
+        if (counter != null) {
+            counter.release(quantity);
+        }
+    }
+
+    /**
+     * 登记已提交的待同步订单
+     * @param orderId 订单ID
+     */
+    public void enqueue(Long orderId) {
+        pendingOrderIds.add(orderId);
+    }
+
+    /**
+     * 定时把待同步订单批量扣减到商品表
+     */
+    @Scheduled(fixedDelayString = "${shop.hot-stock.flush-interval-ms:500}")
+    public void flush() {
+        while (!pendingOrderIds.isEmpty()) {
+            List<Long> batch = new ArrayList<>(flushBatchSize);
+            Long orderId;
+            while (batch.size() < flushBatchSize && (orderId = pendingOrderIds.poll()) != null) {
+                batch.add(orderId);
+            }
+            try {
+                syncOrders(batch);
+            } catch (Exception e) {
+                log.error("热卖库存同步失败，下一轮重试: 订单数={}", batch.size(), e);
+                pendingOrderIds.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 热卖库存统计：各商品剩余库存与待同步订单数
+     */
+    public Map<String, Object> stats() {
+        Map<String, Long> available = new LinkedHashMap<>();
+        counters.forEach((productId, counter) -> available.put(productId, counter.available()));
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products", available);
+        stats.put("pendingOrders", pendingOrderIds.size());
+        return stats;
+    }
+
+    /**
+     * 在一个事务内同步一批订单：锁定仍待同步的订单，按商品汇总扣减，再清除标记。
+     * 已被取消订单清除标记的订单不会再被扣减
+     */
+    private void syncOrders(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ShopOrderItem> items = shopOrderMapper.selectStockPendingItemsForUpdate(orderIds);
+            if (items.isEmpty()) {
+                return;
+            }
+            // 按商品ID排序更新，与其他批次保持一致的加锁顺序
+            Map<String, Integer> deltas = new TreeMap<>();
+            Set<Long> lockedOrderIds = new LinkedHashSet<>();
+            for (ShopOrderItem item : items) {
+                deltas.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+                lockedOrderIds.add(item.getOrderId());
+            }
+            deltas.forEach((productId, quantity) -> shopProductMapper.adjustStock(productId, -quantity));
+            shopOrderMapper.clearStockPending(lockedOrderIds);
+        });
+    }
+}
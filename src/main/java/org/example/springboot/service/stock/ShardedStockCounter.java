@@ -0,0 +1,102 @@
+package org.example.springboot.service.stock;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段库存计数器
+ *
+ * 库存平均分布在多个分段上，每个请求从随机分段开始CAS扣减，
+ * 大量并发请求分散到不同缓存行上，避免争用同一个原子变量。
+ * 单个分段不足时在所有分段间加锁汇总扣减。
+ *
+ * @author system
+ */
+final class ShardedStockCounter {
+
+    /**
+     * 每个分段之间间隔的long数量，使各分段落在不同缓存行（64字节）上
+     */
+    private static final int PADDING = 8;
+
+    private final int shards;
+    private final AtomicLongArray cells;
+
+    ShardedStockCounter(int shards, long initialStock) {
+        this.shards = Math.max(1, shards);
+        this.cells = new AtomicLongArray(this.shards * PADDING);
+        long base = initialStock / this.shards;
+        long remainder = initialStock % this.shards;
+        for (int i = 0; i < this.shards; i++) {
+            cells.set(i * PADDING, base + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * 尝试预占库存
+     * @param quantity 数量
+     * @return 是否预占成功
+     */
+    boolean tryAcquire(int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            int index = ((start + i) % shards) * PADDING;
+            long current;
+            while ((current = cells.get(index)) >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return acquireAcrossShards(quantity);
+    }
+
+    /**
+     * 归还库存
+     * @param quantity 数量
+     */
+    void release(int quantity) {
+        if (quantity > 0) {
+            cells.addAndGet(ThreadLocalRandom.current().nextInt(shards) * PADDING, quantity);
+        }
+    }
+
+    /**
+     * 当前剩余库存（各分段之和，并发时为近似值）
+     */
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < shards; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * 单个分段不足时跨分段汇总扣减；凑不够时把已取出的数量放回
+     */
+    private synchronized boolean acquireAcrossShards(int quantity) {
+        long taken = 0;
+        for (int i = 0; i < shards && taken < quantity; i++) {
+            int index = i * PADDING;
+            long current;
+            while ((current = cells.get(index)) > 0) {
+                long take = Math.min(current, quantity - taken);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    taken += take;
+                    break;
+                }
+            }
+        }
+        if (taken < quantity) {
+            if (taken > 0) {
+                cells.addAndGet(0, taken);
+            }
+            return false;
+        }
+        return true;
+    }
+}
@@ -18,9 +18,10 @@ import java.util.Date;
  * JWT工具类 - 用于JWT token的生成、验证和用户信息获取
  *
  * 主要功能：
- * 1. 生成JWT token（包含userId、username、roleType）
+ * 1. 生成JWT访问令牌（包含userId、username、roleType、status与所属刷新令牌会话）
  * 2. 验证JWT token有效性和过期检查
- * 3. 从请求属性中获取当前用户信息（由JwtAuthenticationFilter设置）
+ * 3. 从请求属性中获取当前用户信息与已解码的token（由JwtAuthenticationFilter设置，每个请求只解码一次）
+ * 4. 从token声明构建当前用户信息，过滤器据此认证，不查询数据库
  *
  * 使用说明：
  * - Token的解析和提取由JwtAuthenticationFilter负责
@@ -32,21 +33,33 @@ import java.util.Date;
  *
  * 安全特性：
  * - 使用HMAC256算法签名
- * - Token有效期7天
+ * - 访问令牌短期有效（jwt.expiration），过期后用刷新令牌换取新令牌
  * - 完善的异常处理和日志记录
  */
 @Slf4j
 public class JwtTokenUtils {
 
+    /**
+     * 请求属性：当前用户信息、当前用户ID、已校验的token
+     */
+    public static final String CURRENT_USER_ATTRIBUTE = "currentUser";
+    public static final String CURRENT_USER_ID_ATTRIBUTE = "currentUserId";
+    public static final String CURRENT_TOKEN_ATTRIBUTE = "currentToken";
+
     /**
      * JWT密钥
      */
     private static final String SECRET = "drone_management_system_jwt_secret_key_2024";
 
     /**
-     * Token过期时间（7天）
+     * token声明：用户ID、用户名、角色代码、用户状态、签发时间（毫秒）、刷新令牌会话ID
      */
-    private static final long EXPIRE_TIME = 7 * 24 * 60 * 60 * 1000L;
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_USERNAME = "username";
+    public static final String CLAIM_ROLE_TYPE = "roleType";
+    public static final String CLAIM_STATUS = "status";
+    public static final String CLAIM_ISSUED_AT_MILLIS = "iatMs";
+    public static final String CLAIM_SESSION_ID = "sid";
 
     /**
      * Token发行者
@@ -54,25 +67,39 @@ public class JwtTokenUtils {
     private static final String ISSUER = "drone-management-system";
 
     /**
-     * 生成JWT token
+     * 签名算法与校验器（线程安全，全局复用）
+     */
+    private static final Algorithm ALGORITHM = Algorithm.HMAC256(SECRET);
+    private static final JWTVerifier VERIFIER = JWT.require(ALGORITHM)
+            .withIssuer(ISSUER)
+            .build();
+
+    /**
+     * 生成JWT访问令牌
      * @param userId 用户ID
      * @param username 用户名
      * @param roleType 角色代码
+     * @param status 用户状态
+     * @param sessionId 刷新令牌会话ID（退出登录时据此注销刷新令牌）
+     * @param expireMillis 有效期（毫秒）
      * @return JWT token
      */
-    public static String generateToken(Long userId, String username, String roleType) {
+    public static String generateToken(Long userId, String username, String roleType, Integer status,
+                                       Long sessionId, long expireMillis) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(SECRET);
-            Date expireDate = new Date(System.currentTimeMillis() + EXPIRE_TIME);
+            long now = System.currentTimeMillis();
 
             return JWT.create()
-                    .withClaim("userId", userId)
-                    .withClaim("username", username)
-                    .withClaim("roleType", roleType)
-                    .withExpiresAt(expireDate)
-                    .withIssuedAt(new Date())
+                    .withClaim(CLAIM_USER_ID, userId)
+                    .withClaim(CLAIM_USERNAME, username)
+                    .withClaim(CLAIM_ROLE_TYPE, roleType)
+                    .withClaim(CLAIM_STATUS, status)
+                    .withClaim(CLAIM_ISSUED_AT_MILLIS, now)
+                    .withClaim(CLAIM_SESSION_ID, sessionId)
+                    .withExpiresAt(new Date(now + expireMillis))
+                    .withIssuedAt(new Date(now))
                     .withIssuer(ISSUER)
-                    .sign(algorithm);
+                    .sign(ALGORITHM);
         } catch (Exception e) {
             log.error("生成JWT token失败", e);
             throw new RuntimeException("生成JWT token失败", e);
@@ -86,11 +113,7 @@ public class JwtTokenUtils {
      * @throws JWTVerificationException token验证失败
      */
     public static DecodedJWT verifyToken(String token) throws JWTVerificationException {
-        Algorithm algorithm = Algorithm.HMAC256(SECRET);
-        JWTVerifier verifier = JWT.require(algorithm)
-                .withIssuer(ISSUER)
-                .build();
-        return verifier.verify(token);
+        return VERIFIER.verify(token);
     }
 
     /**
@@ -107,24 +130,54 @@ public class JwtTokenUtils {
         }
     }
 
+    /**
+     * 从token声明构建用户信息（只包含ID、用户名、用户类型与状态）
+     * @param jwt 已校验的token
+     * @return 用户信息，token未携带用户类型或状态声明时返回null
+     */
+    public static UserDetailResponseDTO getPrincipal(DecodedJWT jwt) {
+        String roleType = jwt.getClaim(CLAIM_ROLE_TYPE).asString();
+        Integer status = jwt.getClaim(CLAIM_STATUS).asInt();
+        if (roleType == null || status == null) {
+            return null;
+        }
+        return UserDetailResponseDTO.builder()
+                .id(jwt.getClaim(CLAIM_USER_ID).asLong())
+                .username(jwt.getClaim(CLAIM_USERNAME).asString())
+                .userType(roleType)
+                .status(status)
+                .build();
+    }
+
+    /**
+     * 获取token签发时间（毫秒），旧token没有毫秒声明时取精确到秒的签发时间
+     * @param jwt 已校验的token
+     * @return 签发时间（epoch毫秒），无法获取时返回null
+     */
+    public static Long getIssuedAtMillis(DecodedJWT jwt) {
+        Long issuedAt = jwt.getClaim(CLAIM_ISSUED_AT_MILLIS).asLong();
+        if (issuedAt != null) {
+            return issuedAt;
+        }
+        return jwt.getIssuedAt() != null ? jwt.getIssuedAt().getTime() : null;
+    }
+
     /**
      * 获取当前请求的用户ID（从RequestContextHolder获取）
      * @return 当前用户ID，获取失败返回null
      */
     public static Long getCurrentUserId() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                Object userId = request.getAttribute("currentUserId");
-                if (userId instanceof Long) {
-                    return (Long) userId;
-                }
-            }
-        } catch (Exception e) {
-            log.error("获取当前用户ID失败", e);
-        }
-        return null;
+        Object userId = getRequestAttribute(CURRENT_USER_ID_ATTRIBUTE);
+        return userId instanceof Long ? (Long) userId : null;
+    }
+
+    /**
+     * 获取当前请求已校验的token（由JwtAuthenticationFilter解码一次后复用）
+     * @return 解码后的JWT，未认证时返回null
+     */
+    public static DecodedJWT getCurrentToken() {
+        Object token = getRequestAttribute(CURRENT_TOKEN_ATTRIBUTE);
+        return token instanceof DecodedJWT ? (DecodedJWT) token : null;
     }
 
     /**
@@ -133,16 +186,8 @@ public class JwtTokenUtils {
      * @return 当前用户对象，获取失败返回null
      */
     public static UserDetailResponseDTO getCurrentUser() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                return (UserDetailResponseDTO)request.getAttribute("currentUser");
-            }
-        } catch (Exception e) {
-            log.error("获取当前用户对象失败", e);
-        }
-        return null;
+        Object user = getRequestAttribute(CURRENT_USER_ATTRIBUTE);
+        return user instanceof UserDetailResponseDTO ? (UserDetailResponseDTO) user : null;
     }
 
     /**
@@ -170,10 +215,20 @@ public class JwtTokenUtils {
      * @return 是否为管理员
      */
     public static boolean isAdmin() {
+        return "ADMIN".equals(getCurrentUserType());
+    }
 
-
-                return "ADMIN".equals(getCurrentUserType());
-
-
+    /**
+     * 读取当前请求的属性
+     * @param name 属性名
+     * @return 属性值，不在请求上下文中时返回null
+     */
+    private static Object getRequestAttribute(String name) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        return request.getAttribute(name);
     }
 }
@@ -0,0 +1,47 @@
+package org.example.springboot.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ * @author system
+ */
+public class TransactionUtils {
+
+    /**
+     * 在当前事务提交后执行操作；没有活动事务时立即执行
+     * 用于内存索引、缓存等只应反映已提交数据的场景
+     * @param action 待执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 在当前事务回滚后执行操作；没有活动事务时不执行
+     * 用于归还事务外预占的资源（如内存库存计数）
+     * @param action 待执行的操作
+     */
+    public static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,120 @@
+-- ============================================================
+-- 数据库结构升级脚本（MySQL），按功能分段，可重复对照执行
+-- ============================================================
+
+-- ------------------------------------------------------------
+-- 非遗作品游标分页：(create_time, id) 组合索引支撑 ORDER BY create_time DESC, id DESC
+-- ------------------------------------------------------------
+ALTER TABLE heritage_item ADD INDEX idx_heritage_item_create_time_id (create_time, id);
+
+-- ------------------------------------------------------------
+-- 非遗作品热度排行：浏览量计数（由内存计数器定时批量累加）
+-- ------------------------------------------------------------
+ALTER TABLE heritage_item ADD COLUMN view_count BIGINT NOT NULL DEFAULT 0 COMMENT '浏览量';
+ALTER TABLE heritage_item ADD INDEX idx_heritage_item_status_view_count (status, view_count);
+
+-- ------------------------------------------------------------
+-- 商品库存原子扣减：库存版本号（条件扣减、回补、按版本设置库存时加1）
+-- ------------------------------------------------------------
+ALTER TABLE shop_product ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '库存版本号';
+
+-- ------------------------------------------------------------
+-- 热卖库存模式：商品开关 + 订单库存待同步标记（内存预占后批量扣减到商品表）
+-- ------------------------------------------------------------
+ALTER TABLE shop_product ADD COLUMN hot_stock TINYINT NOT NULL DEFAULT 0 COMMENT '热卖库存模式 0关闭 1开启';
+ALTER TABLE shop_order ADD COLUMN stock_pending TINYINT NOT NULL DEFAULT 0 COMMENT '库存待同步 1待同步 0已同步';
+ALTER TABLE shop_order ADD INDEX idx_shop_order_stock_pending (stock_pending);
+
+-- ------------------------------------------------------------
+-- 未支付订单超时关闭：启动恢复时按状态加载待支付订单
+-- ------------------------------------------------------------
+ALTER TABLE shop_order ADD INDEX idx_shop_order_status_create_time (status, create_time);
+
+-- ------------------------------------------------------------
+-- 订单事件发件箱：与订单状态变更同一事务写入，异步批量投递给监听器（至少一次）
+-- ------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS shop_order_outbox (
+    id                BIGINT       NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    event_type        VARCHAR(20)  NOT NULL COMMENT '事件类型 CREATED/PAID/SHIPPED/COMPLETED/CLOSED',
+    order_id          BIGINT       NOT NULL COMMENT '订单ID',
+    user_id           BIGINT       NOT NULL COMMENT '用户ID',
+    payload           TEXT         NOT NULL COMMENT '事件内容（JSON）',
+    status            TINYINT      NOT NULL DEFAULT 0 COMMENT '投递状态 0待投递 1已投递',
+    attempts          INT          NOT NULL DEFAULT 0 COMMENT '失败重试次数',
+    next_attempt_time DATETIME(3)  NOT NULL COMMENT '下次投递时间',
+    create_time       DATETIME(3)  NOT NULL COMMENT '创建时间',
+    dispatch_time     DATETIME(3)  NULL COMMENT '投递完成时间',
+    PRIMARY KEY (id),
+    KEY idx_shop_order_outbox_status_next (status, next_attempt_time),
+    KEY idx_shop_order_outbox_status_create (status, create_time)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '订单事件发件箱';
+
+-- ------------------------------------------------------------
+-- 订单归档：已完成、已关闭的历史订单定期迁移到归档表，在线表只保留近期订单
+-- ------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS shop_order_archive LIKE shop_order;
+CREATE TABLE IF NOT EXISTS shop_order_item_archive LIKE shop_order_item;
+ALTER TABLE shop_order_archive ADD INDEX idx_shop_order_archive_user_create (user_id, create_time);
+ALTER TABLE shop_order_item_archive ADD INDEX idx_shop_order_item_archive_order (order_id);
+
+-- ------------------------------------------------------------
+-- 管理员订单号查找：精确、前缀匹配走订单号唯一索引（归档表由 LIKE 复制）；
+-- 尾号匹配走倒序订单号函数索引（MySQL 8.0.13+）
+-- ------------------------------------------------------------
+ALTER TABLE shop_order ADD INDEX idx_shop_order_order_no_reversed ((REVERSE(order_no)));
+ALTER TABLE shop_order_archive ADD INDEX idx_shop_order_archive_order_no_reversed ((REVERSE(order_no)));
+
+-- ------------------------------------------------------------
+-- 仪表板聚合统计：按时间范围聚合订单数与金额走覆盖索引，按类别分组走类别索引
+-- ------------------------------------------------------------
+ALTER TABLE shop_order ADD INDEX idx_shop_order_create_status_amount (create_time, status, pay_amount);
+ALTER TABLE shop_order_archive ADD INDEX idx_shop_order_archive_create_status_amount (create_time, status, pay_amount);
+ALTER TABLE heritage_item ADD INDEX idx_heritage_item_category (category);
+
+-- ------------------------------------------------------------
+-- 订单统计汇总：按订单创建时间的小时汇总，由订单事件增量更新、对账任务按天重建
+-- ------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS daily_stats (
+    id           BIGINT         NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    stat_date    DATE           NOT NULL COMMENT '统计日期',
+    stat_hour    TINYINT        NOT NULL COMMENT '统计小时 0-23',
+    order_count  BIGINT         NOT NULL DEFAULT 0 COMMENT '下单数（全部状态）',
+    paid_count   BIGINT         NOT NULL DEFAULT 0 COMMENT '已支付订单数（已支付、已发货、已完成）',
+    sales_amount DECIMAL(14, 2) NOT NULL DEFAULT 0 COMMENT '销售额',
+    update_time  DATETIME       NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_daily_stats_date_hour (stat_date, stat_hour)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '订单统计汇总';
+
+-- 首次上线时按现有订单回填汇总
+INSERT INTO daily_stats (stat_date, stat_hour, order_count, paid_count, sales_amount, update_time)
+SELECT DATE(t.create_time), HOUR(t.create_time), COUNT(*),
+       SUM(CASE WHEN t.status IN (1, 2, 3) THEN 1 ELSE 0 END),
+       COALESCE(SUM(CASE WHEN t.status IN (1, 2, 3) THEN t.pay_amount END), 0),
+       NOW()
+FROM (
+    SELECT create_time, status, pay_amount FROM shop_order
+    UNION ALL
+    SELECT create_time, status, pay_amount FROM shop_order_archive
+) t
+GROUP BY DATE(t.create_time), HOUR(t.create_time)
+ON DUPLICATE KEY UPDATE order_count = VALUES(order_count), paid_count = VALUES(paid_count),
+                        sales_amount = VALUES(sales_amount), update_time = NOW();
+
+-- ------------------------------------------------------------
+-- 刷新令牌：只保存令牌摘要，按摘要唯一索引查找；同一次登录的令牌按会话注销，按用户批量注销
+-- ------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS user_refresh_token (
+    id          BIGINT                        NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    user_id     BIGINT                        NOT NULL COMMENT '用户ID',
+    session_id  BIGINT                        NOT NULL COMMENT '会话ID（同一次登录轮换产生的令牌相同）',
+    token_hash  CHAR(43) CHARACTER SET ascii  NOT NULL COMMENT '令牌摘要（SHA-256，Base64URL）',
+    status      TINYINT                       NOT NULL DEFAULT 0 COMMENT '状态 0-有效 1-已轮换 2-已注销',
+    expire_time DATETIME                      NOT NULL COMMENT '过期时间',
+    create_time DATETIME                      NOT NULL COMMENT '创建时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_user_refresh_token_hash (token_hash),
+    KEY idx_user_refresh_token_user (user_id, status),
+    KEY idx_user_refresh_token_session (session_id, status),
+    KEY idx_user_refresh_token_expire (expire_time)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '刷新令牌';
@@ -0,0 +1,96 @@
+package org.example.springboot.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.example.springboot.config.JwtConfig;
+import org.example.springboot.service.auth.JwtTokenService;
+import org.example.springboot.util.JwtTokenUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个请求的token校验开销基准测试
+ * 1. freshVerifier：原实现，每次校验都新建签名算法与校验器
+ * 2. sharedVerifier：JwtTokenUtils.verifyToken，复用全局校验器，每次仍做签名校验与JSON解析
+ * 3. serviceCacheHit：JwtTokenService.verify 缓存命中，只计算token摘要、查缓存与注销列表
+ *
+ * 运行：mvn test-compile 后在IDE中运行main方法，或以 target/test-classes 与测试classpath运行本类
+ *
+ * @author system
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class JwtVerifyBenchmark {
+
+    private String token;
+
+    private String secret;
+
+    private String issuer;
+
+    private JwtTokenService jwtTokenService;
+
+    @Setup
+    public void setUp() {
+        token = JwtTokenUtils.generateToken(1L, "benchmark", "USER", 1, 1L, TimeUnit.HOURS.toMillis(1));
+        secret = (String) ReflectionTestUtils.getField(JwtTokenUtils.class, "SECRET");
+        issuer = (String) ReflectionTestUtils.getField(JwtTokenUtils.class, "ISSUER");
+
+        jwtTokenService = new JwtTokenService();
+        ReflectionTestUtils.setField(jwtTokenService, "jwtConfig", new JwtConfig());
+        ReflectionTestUtils.setField(jwtTokenService, "cacheMaxSize", 10000);
+        ReflectionTestUtils.setField(jwtTokenService, "cacheTtlSeconds", 300L);
+        ReflectionTestUtils.setField(jwtTokenService, "redisEnabled", false);
+        ReflectionTestUtils.setField(jwtTokenService, "revocationRetentionMillis", TimeUnit.DAYS.toMillis(7));
+        jwtTokenService.init();
+        // 预热缓存，之后每次调用都是缓存命中
+        jwtTokenService.verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT freshVerifier() {
+        return JWT.require(Algorithm.HMAC256(secret))
+                .withIssuer(issuer)
+                .build()
+                .verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT sharedVerifier() {
+        return JwtTokenUtils.verifyToken(token);
+    }
+
+    @Benchmark
+    public DecodedJWT serviceCacheHit() {
+        return jwtTokenService.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerifyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.service.order.OrderNoGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单号生成基准测试：原生成方式（时间格式化 + 用户ID后4位 + Math.random）与 OrderNoGenerator 在多线程竞争下的吞吐量
+ *
+ * 运行：mvn test-compile 后在IDE中运行main方法，或以 target/test-classes 与测试classpath运行本类
+ *
+ * @author system
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class OrderNoGeneratorBenchmark {
+
+    private OrderNoGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new OrderNoGenerator();
+        generator.init();
+    }
+
+    /**
+     * 原生成方式（同一秒内同一用户尾号的订单号只靠4位随机数区分）
+     */
+    @Benchmark
+    public String legacyOrderNo() {
+        return legacyOrderNo(10086L);
+    }
+
+    @Benchmark
+    public String generatorOrderNo() {
+        return generator.nextOrderNo();
+    }
+
+    @Benchmark
+    public long generatorId() {
+        return generator.nextId();
+    }
+
+    /**
+     * 原 OrderService.generateOrderNo 的实现
+     */
+    private static String legacyOrderNo(Long userId) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        String userIdSuffix = String.format("%04d", userId % 10000);
+        String randomSuffix = String.format("%04d", (int) (Math.random() * 10000));
+        return timestamp + userIdSuffix + randomSuffix;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OrderNoGeneratorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.ShopOrder;
+import org.example.springboot.enums.OrderNoMatchMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 归档订单按订单号查找测试：尾号匹配（含以9开头的尾号）、通配符转义
+ *
+ * @author system
+ */
+@MybatisPlusTest
+@ContextConfiguration(classes = ShopOrderArchiveMapperSearchTest.MapperConfig.class)
+public class ShopOrderArchiveMapperSearchTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Resource
+    private ShopOrderArchiveMapper shopOrderArchiveMapper;
+
+    @Resource
+    private DataSource dataSource;
+
+    @Configuration
+    @MapperScan("org.example.springboot.mapper")
+    static class MapperConfig {
+    }
+
+    /**
+     * 供H2调用的 REVERSE 函数（MySQL内置）
+     */
+    public static String reverse(String value) {
+        return value == null ? null : new StringBuilder(value).reverse().toString();
+    }
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS REVERSE FOR '"
+                    + ShopOrderArchiveMapperSearchTest.class.getName() + ".reverse'");
+        } catch (DataAccessException e) {
+            // 数据库已内置 REVERSE
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS shop_order_archive ("
+                + "id BIGINT PRIMARY KEY, "
+                + "order_no VARCHAR(32) NOT NULL, "
+                + "user_id BIGINT NOT NULL, "
+                + "status INT NOT NULL, "
+                + "create_time TIMESTAMP NOT NULL)");
+        jdbcTemplate.update("DELETE FROM shop_order_archive");
+        insertOrder(jdbcTemplate, 1L, "2025000191", NOW.minusHours(3));
+        insertOrder(jdbcTemplate, 2L, "2025000291", NOW.minusHours(1));
+        insertOrder(jdbcTemplate, 3L, "2025000919", NOW.minusHours(2));
+        insertOrder(jdbcTemplate, 4L, "2025000192", NOW);
+    }
+
+    @Test
+    void suffixStartingWithNineMatches() {
+        assertEquals(List.of("2025000291", "2025000191"), searchSuffix("91"));
+        assertEquals(List.of("2025000919"), searchSuffix("919"));
+        assertEquals(List.of("2025000919"), searchSuffix("9"));
+    }
+
+    @Test
+    void suffixMatchesOnlyTrailingDigits() {
+        assertEquals(List.of("2025000192"), searchSuffix("2"));
+        assertEquals(List.of("2025000291", "2025000191"), searchSuffix("1"));
+        assertEquals(List.of("2025000919"), searchSuffix("0919"));
+        assertTrue(searchSuffix("8919").isEmpty());
+    }
+
+    @Test
+    void wildcardsInSuffixAreLiteral() {
+        assertTrue(searchSuffix("%1").isEmpty());
+        assertTrue(searchSuffix("_1").isEmpty());
+        assertTrue(searchSuffix("\\1").isEmpty());
+    }
+
+    private List<String> searchSuffix(String suffix) {
+        return shopOrderArchiveMapper.searchOrders(null, OrderNoMatchMode.SUFFIX.name(), suffix,
+                        OrderNoMatchMode.reverseForSuffix(suffix), 10)
+                .stream()
+                .map(ShopOrder::getOrderNo)
+                .collect(Collectors.toList());
+    }
+
+    private static void insertOrder(JdbcTemplate jdbcTemplate, Long id, String orderNo, LocalDateTime createTime) {
+        jdbcTemplate.update("INSERT INTO shop_order_archive (id, order_no, user_id, status, create_time) "
+                + "VALUES (?, ?, 1, 4, ?)", id, orderNo, createTime);
+    }
+}
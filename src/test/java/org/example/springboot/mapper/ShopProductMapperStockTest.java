@@ -0,0 +1,138 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import jakarta.annotation.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 条件扣减库存并发测试：N个并发请求争抢库存K（K小于N），恰好K个成功且不超卖
+ * 每次扣减在独立的自动提交事务中执行，与下单时的行锁竞争一致
+ *
+ * @author system
+ */
+@MybatisPlusTest
+@ContextConfiguration(classes = ShopProductMapperStockTest.MapperConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShopProductMapperStockTest {
+
+    private static final String PRODUCT_ID = "stock-test-product";
+
+    @Resource
+    private ShopProductMapper shopProductMapper;
+
+    @Resource
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Configuration
+    @MapperScan("org.example.springboot.mapper")
+    static class MapperConfig {
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // 并发更新同一行时等待行锁而不是立即失败
+        jdbcTemplate.execute("SET DEFAULT_LOCK_TIMEOUT 10000");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS shop_product ("
+                + "id VARCHAR(64) PRIMARY KEY, "
+                + "stock INT NOT NULL, "
+                + "status INT NOT NULL, "
+                + "version INT NOT NULL DEFAULT 0, "
+                + "update_time TIMESTAMP)");
+        jdbcTemplate.update("DELETE FROM shop_product");
+    }
+
+    @Test
+    void concurrentDecreaseNeverOversells() throws Exception {
+        int stock = 20;
+        int requests = 64;
+        insertProduct(stock);
+
+        int succeeded = decreaseConcurrently(requests, 1);
+
+        assertEquals(stock, succeeded);
+        assertEquals(0, currentStock());
+    }
+
+    @Test
+    void concurrentDecreaseRejectsWhenRemainingStockIsInsufficient() throws Exception {
+        insertProduct(10);
+
+        int succeeded = decreaseConcurrently(16, 3);
+
+        assertEquals(3, succeeded);
+        assertEquals(1, currentStock());
+    }
+
+    @Test
+    void offShelfProductIsNotDecreased() {
+        jdbcTemplate.update("INSERT INTO shop_product (id, stock, status, version) VALUES (?, ?, 0, 0)",
+                PRODUCT_ID, 10);
+
+        assertEquals(0, shopProductMapper.decreaseStock(PRODUCT_ID, 1));
+        assertEquals(10, currentStock());
+    }
+
+    /**
+     * 多线程同时发起扣减
+     * @return 扣减成功的请求数
+     */
+    private int decreaseConcurrently(int requests, int quantity) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return shopProductMapper.decreaseStock(PRODUCT_ID, quantity);
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        try {
+            for (Future<Integer> future : futures) {
+                int rows = future.get(30, TimeUnit.SECONDS);
+                if (rows == 1) {
+                    succeeded++;
+                } else {
+                    assertEquals(0, rows);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return succeeded;
+    }
+
+    private void insertProduct(int stock) {
+        jdbcTemplate.update("INSERT INTO shop_product (id, stock, status, version) VALUES (?, ?, 1, 0)",
+                PRODUCT_ID, stock);
+    }
+
+    private int currentStock() {
+        Integer stock = jdbcTemplate.queryForObject("SELECT stock FROM shop_product WHERE id = ?",
+                Integer.class, PRODUCT_ID);
+        return stock == null ? -1 : stock;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.springboot.service.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订单号生成器测试：多线程唯一、递增，序列号溢出与时钟回拨时借用逻辑时钟
+ *
+ * @author system
+ */
+class OrderNoGeneratorTest {
+
+    /**
+     * 固定时钟：2025-01-01 00:00:00 UTC
+     */
+    private static final long NOW = 1735689600000L;
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasing() throws Exception {
+        assertConcurrentIdsUniqueAndIncreasing(new OrderNoGenerator(7, System::currentTimeMillis), 7);
+    }
+
+    @Test
+    void concurrentIdsUnderFrozenClockBorrowAheadWithoutDuplicates() throws Exception {
+        // 时钟不前进时每毫秒只有4096个序列号，多线程并发生成必然反复溢出并借用后续毫秒
+        OrderNoGenerator generator = new OrderNoGenerator(3, () -> NOW);
+        long first = generator.nextId();
+        long last = assertConcurrentIdsUniqueAndIncreasing(generator, 3);
+
+        long total = (long) THREADS * IDS_PER_THREAD + 1;
+        assertEquals(timestampOf(first) + (total - 1) / 4096, timestampOf(last));
+    }
+
+    @Test
+    void sequenceOverflowCarriesIntoNextMillisecond() {
+        OrderNoGenerator generator = new OrderNoGenerator(1, () -> NOW);
+        long first = generator.nextId();
+        assertEquals(0, sequenceOf(first));
+
+        long previous = first;
+        for (int i = 1; i < 4096 * 3; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "ID必须严格递增");
+            previous = id;
+        }
+        assertEquals(timestampOf(first) + 2, timestampOf(previous));
+        assertEquals(4095, sequenceOf(previous));
+
+        long carried = generator.nextId();
+        assertEquals(timestampOf(first) + 3, timestampOf(carried));
+        assertEquals(0, sequenceOf(carried));
+    }
+
+    @Test
+    void clockRollbackContinuesLogicalClock() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderNoGenerator generator = new OrderNoGenerator(1, clock::get);
+        long beforeRollback = generator.nextId();
+
+        clock.set(NOW - 5_000);
+        long afterRollback = generator.nextId();
+        assertTrue(afterRollback > beforeRollback, "时钟回拨后ID仍须递增");
+        assertEquals(timestampOf(beforeRollback), timestampOf(afterRollback));
+        assertEquals(sequenceOf(beforeRollback) + 1, sequenceOf(afterRollback));
+
+        // 时钟追上后回到真实时间
+        clock.set(NOW + 10);
+        long recovered = generator.nextId();
+        assertEquals(timestampOf(beforeRollback) + 10, timestampOf(recovered));
+        assertEquals(0, sequenceOf(recovered));
+    }
+
+    @Test
+    void orderNoIsDecimalId() {
+        OrderNoGenerator generator = new OrderNoGenerator(1, () -> NOW);
+        String orderNo = generator.nextOrderNo();
+        assertTrue(orderNo.chars().allMatch(Character::isDigit));
+        assertTrue(Long.parseLong(orderNo) < generator.nextId());
+    }
+
+    /**
+     * 多线程并发生成：每个线程内严格递增，全部ID不重复，节点ID正确
+     * @return 生成的最大ID
+     */
+    private static long assertConcurrentIdsUniqueAndIncreasing(OrderNoGenerator generator, long nodeId)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                long[] ids = new long[IDS_PER_THREAD];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+
+        Set<Long> all = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+        long max = Long.MIN_VALUE;
+        try {
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get(60, TimeUnit.SECONDS);
+                for (int i = 0; i < ids.length; i++) {
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1], "同一线程内ID必须严格递增");
+                    }
+                    assertTrue(all.add(ids[i]), "ID重复: " + ids[i]);
+                    assertEquals(nodeId, nodeOf(ids[i]));
+                    max = Math.max(max, ids[i]);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(THREADS * IDS_PER_THREAD, all.size());
+        return max;
+    }
+
+    private static long timestampOf(long id) {
+        return id >>> 22;
+    }
+
+    private static long nodeOf(long id) {
+        return (id >>> 12) & 1023;
+    }
+
+    private static long sequenceOf(long id) {
+        return id & 4095;
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.springboot.service.search;
+
+import org.example.springboot.entity.HeritageItem;
+import org.example.springboot.enums.HeritageItemStatus;
+import org.example.springboot.mapper.HeritageItemMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 作品检索索引全量构建测试：构建期间的增量变更在替换索引后重放，不被构建快照覆盖
+ *
+ * @author system
+ */
+class HeritageSearchIndexTest {
+
+    private HeritageItemMapper heritageItemMapper;
+
+    private HeritageSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        heritageItemMapper = mock(HeritageItemMapper.class);
+        index = new HeritageSearchIndex();
+        ReflectionTestUtils.setField(index, "heritageItemMapper", heritageItemMapper);
+    }
+
+    @Test
+    void changesDuringRebuildAreReplayedAfterSwap() {
+        // 读取快照期间：新增作品3、删除作品2、作品1改标题，快照仍是变更前的数据
+        when(heritageItemMapper.selectList(any())).thenAnswer(invocation -> {
+            index.upsert(item("3", "paper cutting", HeritageItemStatus.PUBLISHED));
+            index.remove("2");
+            index.upsert(item("1", "shadow puppetry", HeritageItemStatus.PUBLISHED));
+            return List.of(item("1", "kite making", HeritageItemStatus.PUBLISHED),
+                    item("2", "clay figurine", HeritageItemStatus.PUBLISHED));
+        });
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(2, index.size());
+        assertEquals(List.of("3"), index.search("paper", 10));
+        assertTrue(index.search("clay", 10).isEmpty());
+        assertTrue(index.search("kite", 10).isEmpty());
+        assertEquals(List.of("1"), index.search("shadow", 10));
+    }
+
+    @Test
+    void unpublishDuringRebuildRemovesSnapshotItem() {
+        when(heritageItemMapper.selectList(any())).thenAnswer(invocation -> {
+            index.upsert(item("1", "kite making", HeritageItemStatus.DRAFT));
+            return List.of(item("1", "kite making", HeritageItemStatus.PUBLISHED));
+        });
+
+        index.rebuild();
+
+        assertEquals(0, index.size());
+        assertTrue(index.search("kite", 10).isEmpty());
+    }
+
+    @Test
+    void changesAfterRebuildApplyDirectly() {
+        when(heritageItemMapper.selectList(any()))
+                .thenReturn(List.of(item("1", "kite making", HeritageItemStatus.PUBLISHED)));
+        index.rebuild();
+
+        index.upsert(item("2", "paper cutting", HeritageItemStatus.PUBLISHED));
+        index.remove("1");
+
+        assertEquals(List.of("2"), index.search("paper", 10));
+        assertTrue(index.search("kite", 10).isEmpty());
+    }
+
+    @Test
+    void failedRebuildStopsRecordingChanges() {
+        when(heritageItemMapper.selectList(any())).thenThrow(new IllegalStateException("db down"));
+
+        index.rebuild();
+        index.upsert(item("1", "kite making", HeritageItemStatus.PUBLISHED));
+
+        assertFalse(index.isReady());
+        assertEquals(1, index.size());
+        assertNull(ReflectionTestUtils.getField(index, "pendingChanges"));
+    }
+
+    private static HeritageItem item(String id, String title, HeritageItemStatus status) {
+        HeritageItem item = new HeritageItem();
+        item.setId(id);
+        item.setTitle(title);
+        item.setStatus(status.getCode());
+        return item;
+    }
+}